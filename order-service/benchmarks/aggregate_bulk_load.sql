@@ -0,0 +1,71 @@
+-- aggregate_bulk_load.sql
+-- Benchmark: fetching the events of 10,000 aggregates one query each vs. in ANY chunks
+--
+-- Usage (against a scratch order_db, never production):
+--   psql -d order_db -f benchmarks/aggregate_bulk_load.sql
+--
+-- Requires the domain_events table.
+-- Seeds 10,000 aggregates of 20 events (512 B payload each), then times:
+--   1. 10,000 x the query issued by EventStoreService.loadAggregate
+--   2. 10 x the query issued by EventStoreService.loadAggregates
+--      (eventsourcing.bulk-load.ids-per-query = 1000)
+-- Both read the same 200,000 rows; the per-aggregate loop pays planning and an
+-- index descent per aggregate (plus, from the application, a round trip each).
+-- The CPU side of loadAggregates is measured by BulkRehydrationBenchmark (JMH).
+-- Everything runs in a transaction that is rolled back.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO domain_events (event_id, aggregate_id, aggregate_type, event_type, event_version,
+                           sequence_number, payload, occurred_on, version)
+SELECT gen_random_uuid(), 'order-bulk-' || (g / 20), 'Order', 'OrderItemAdded', 1,
+       g % 20, repeat('x', 512), now(), 0
+FROM generate_series(0, 199999) g;
+ANALYZE domain_events;
+
+-- 1. One query per aggregate
+DO $$
+DECLARE
+    rows_read bigint := 0;
+    n bigint;
+BEGIN
+    FOR i IN 0..9999 LOOP
+        SELECT count(*) INTO n FROM (
+            SELECT * FROM domain_events
+            WHERE aggregate_id = 'order-bulk-' || i AND aggregate_type = 'Order'
+            ORDER BY sequence_number) e;
+        rows_read := rows_read + n;
+    END LOOP;
+    RAISE NOTICE 'per-aggregate queries read % rows', rows_read;
+END;
+$$;
+
+-- 2. One query per 1,000 ids
+DO $$
+DECLARE
+    rows_read bigint := 0;
+    n bigint;
+BEGIN
+    FOR chunk IN 0..9 LOOP
+        SELECT count(*) INTO n FROM (
+            SELECT * FROM domain_events
+            WHERE aggregate_type = 'Order'
+              AND aggregate_id = ANY(ARRAY(
+                  SELECT 'order-bulk-' || g FROM generate_series(chunk * 1000, chunk * 1000 + 999) g))
+            ORDER BY aggregate_id, sequence_number) e;
+        rows_read := rows_read + n;
+    END LOOP;
+    RAISE NOTICE 'ANY chunk queries read % rows', rows_read;
+END;
+$$;
+
+-- Plan of one chunk
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_type = 'Order'
+  AND aggregate_id = ANY(ARRAY(SELECT 'order-bulk-' || g FROM generate_series(0, 999) g))
+ORDER BY aggregate_id, sequence_number;
+
+ROLLBACK;
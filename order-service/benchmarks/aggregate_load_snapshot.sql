@@ -0,0 +1,87 @@
+-- aggregate_load_snapshot.sql
+-- Benchmark: loading an aggregate by full replay vs. snapshot + tail events
+--
+-- Usage (against a scratch order_db, never production):
+--   psql -d order_db -f benchmarks/aggregate_load_snapshot.sql
+--
+-- Requires the domain_events and aggregate_snapshots tables.
+-- Seeds one aggregate with N events (2 KB payload each) and a snapshot taken at the
+-- last multiple of 100 (eventsourcing.snapshot.frequency), surrounded by 10,000
+-- other aggregates of 20 events, then runs with EXPLAIN ANALYZE the queries issued by:
+--   1. EventStoreService.loadAggregate: every event of the aggregate
+--   2. EventStoreService.loadAggregateFromSnapshot: latest snapshot + events after it
+-- Full replay reads and deserializes all N events, growing with aggregate age;
+-- the snapshot path reads one snapshot and at most 99 events regardless of N.
+-- Everything runs in a transaction that is rolled back.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO domain_events (event_id, aggregate_id, aggregate_type, event_type, event_version,
+                           sequence_number, payload, occurred_on, version)
+SELECT gen_random_uuid(), 'order-bg-' || (g / 20), 'Order', 'OrderItemAdded', 1,
+       g % 20, repeat('x', 2048), now(), 0
+FROM generate_series(0, 199999) g;
+
+CREATE OR REPLACE FUNCTION pg_temp.seed_aggregate(aggregate text, events int) RETURNS void AS $$
+BEGIN
+    INSERT INTO domain_events (event_id, aggregate_id, aggregate_type, event_type, event_version,
+                               sequence_number, payload, occurred_on, version)
+    SELECT gen_random_uuid(), aggregate, 'Order', 'OrderItemAdded', 1,
+           g, repeat('x', 2048), now(), 0
+    FROM generate_series(0, events - 1) g;
+
+    INSERT INTO aggregate_snapshots (snapshot_id, aggregate_id, aggregate_type, sequence_number,
+                                     aggregate_version, state, created_at)
+    VALUES (gen_random_uuid(), aggregate, 'Order', (events / 100) * 100 - 1,
+            (events / 100) * 100, repeat('s', 8192), now());
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.seed_aggregate('order-150', 150);
+SELECT pg_temp.seed_aggregate('order-550', 550);
+SELECT pg_temp.seed_aggregate('order-5050', 5050);
+ANALYZE domain_events;
+ANALYZE aggregate_snapshots;
+
+-- 150 events: full replay vs. snapshot at 99 + 50 events
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-150' AND aggregate_type = 'Order' ORDER BY sequence_number;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM aggregate_snapshots
+WHERE aggregate_id = 'order-150' AND aggregate_type = 'Order' ORDER BY sequence_number DESC LIMIT 1;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-150' AND aggregate_type = 'Order' AND sequence_number > 99
+ORDER BY sequence_number;
+
+-- 550 events: full replay vs. snapshot at 499 + 50 events
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-550' AND aggregate_type = 'Order' ORDER BY sequence_number;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM aggregate_snapshots
+WHERE aggregate_id = 'order-550' AND aggregate_type = 'Order' ORDER BY sequence_number DESC LIMIT 1;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-550' AND aggregate_type = 'Order' AND sequence_number > 499
+ORDER BY sequence_number;
+
+-- 5,050 events: full replay vs. snapshot at 4,999 + 50 events
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-5050' AND aggregate_type = 'Order' ORDER BY sequence_number;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM aggregate_snapshots
+WHERE aggregate_id = 'order-5050' AND aggregate_type = 'Order' ORDER BY sequence_number DESC LIMIT 1;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM domain_events
+WHERE aggregate_id = 'order-5050' AND aggregate_type = 'Order' AND sequence_number > 4999
+ORDER BY sequence_number;
+
+ROLLBACK;
@@ -0,0 +1,60 @@
+-- event_append_contention.sql
+-- Benchmark: event store append throughput and conflict rate under contention
+--
+-- Usage (against a scratch order_db, never production):
+--   psql -d order_db -f benchmarks/event_append_contention.sql
+--   pgbench -d order_db -n -c 16 -j 4 -T 30 -f benchmarks/event_append_contention.pgbench
+--   psql -d order_db -c "SELECT * FROM bench_event_append.summary"
+--   psql -d order_db -c "DROP SCHEMA bench_event_append CASCADE"
+--
+-- Requires domain_events with uk_domain_events_aggregate_sequence.
+-- Each pgbench transaction mirrors EventStoreService.appendEvents for a command on
+-- one of a small set of hot aggregates: read the version the aggregate was loaded
+-- at, then insert 5 events in one multi-row statement at the expected sequence
+-- numbers. Concurrent writers on the same aggregate hit the unique constraint and
+-- are counted as conflicts (OptimisticConcurrencyException in the service).
+-- Vary the number of hot aggregates in the .pgbench file to change contention;
+-- pgbench reports appends per second, the summary view the conflict ratio.
+
+CREATE SCHEMA IF NOT EXISTS bench_event_append;
+
+-- Append-only outcome log, so recording results adds no contention of its own
+CREATE UNLOGGED TABLE IF NOT EXISTS bench_event_append.outcomes (
+    conflict boolean NOT NULL
+);
+
+TRUNCATE bench_event_append.outcomes;
+
+DELETE FROM domain_events WHERE aggregate_type = 'BenchOrder';
+
+CREATE OR REPLACE FUNCTION bench_event_append.append_batch(aggregate text, batch int)
+RETURNS boolean AS $$
+DECLARE
+    expected bigint;
+BEGIN
+    SELECT COALESCE(MAX(sequence_number) + 1, 0) INTO expected
+    FROM domain_events WHERE aggregate_id = aggregate AND aggregate_type = 'BenchOrder';
+
+    INSERT INTO domain_events (event_id, aggregate_id, aggregate_type, event_type, event_version,
+                               sequence_number, payload, occurred_on, version)
+    SELECT gen_random_uuid(), aggregate, 'BenchOrder', 'OrderItemAdded', 1,
+           expected + g, repeat('x', 512), now(), 0
+    FROM generate_series(0, batch - 1) g;
+
+    INSERT INTO bench_event_append.outcomes VALUES (false);
+    RETURN true;
+EXCEPTION WHEN unique_violation THEN
+    INSERT INTO bench_event_append.outcomes VALUES (true);
+    RETURN false;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE VIEW bench_event_append.summary AS
+SELECT count(*) FILTER (WHERE NOT conflict) AS appended,
+       count(*) FILTER (WHERE conflict) AS conflicts,
+       round(100.0 * count(*) FILTER (WHERE conflict) / NULLIF(count(*), 0), 2) AS conflict_pct,
+       (SELECT count(*) FROM (
+            SELECT aggregate_id, sequence_number FROM domain_events
+            WHERE aggregate_type = 'BenchOrder'
+            GROUP BY aggregate_id, sequence_number HAVING count(*) > 1) d) AS duplicate_sequences
+FROM bench_event_append.outcomes;
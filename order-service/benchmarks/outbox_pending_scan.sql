@@ -0,0 +1,84 @@
+-- outbox_pending_scan.sql
+-- Benchmark: cost of the outbox poller scan as processed history grows
+--
+-- Usage (against a scratch order_db, never production):
+--   psql -d order_db -f benchmarks/outbox_pending_scan.sql
+--
+-- Requires the outbox_events table with V2__Add_Outbox_Pending_Index.sql applied.
+-- For each history size the script keeps a fixed backlog of 1,000 pending rows,
+-- then runs with EXPLAIN ANALYZE:
+--   1. the old full-row scan, with idx_outbox_pending dropped inside a rolled-back
+--      transaction so only the pre-V2 indexes are available
+--   2. the new summary scan used by the poller
+-- The summary scan stays an Index Only Scan reading ~100 rows regardless of
+-- history; the old scan's buffers and time grow with the processed rows.
+
+\timing on
+
+CREATE OR REPLACE FUNCTION pg_temp.fill_outbox(processed_rows int, pending_rows int) RETURNS void AS $$
+BEGIN
+    TRUNCATE outbox_events;
+
+    INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, event_version,
+                               payload, metadata, processed, processed_at, retry_count,
+                               created_at, updated_at)
+    SELECT gen_random_uuid(), 'Order', 'order-' || (g % 50000), 'OrderCreated', '1.0',
+           repeat('x', 2048), NULL, true, now() - (g || ' seconds')::interval, 0,
+           now() - (g || ' seconds')::interval, now()
+    FROM generate_series(1, processed_rows) g;
+
+    INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, event_version,
+                               payload, metadata, processed, processed_at, retry_count,
+                               created_at, updated_at)
+    SELECT gen_random_uuid(), 'Order', 'order-' || (g % 500), 'OrderCreated', '1.0',
+           repeat('x', 2048), NULL, false, NULL, 0,
+           now() - ((pending_rows - g) || ' milliseconds')::interval, now()
+    FROM generate_series(1, pending_rows) g;
+
+    VACUUM ANALYZE outbox_events;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 10k processed rows
+SELECT pg_temp.fill_outbox(10000, 1000);
+
+BEGIN;
+DROP INDEX idx_outbox_pending;
+CREATE INDEX idx_outbox_processed ON outbox_events(processed);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, aggregate_type, aggregate_id, event_type, retry_count, created_at
+FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+
+-- 100k processed rows
+SELECT pg_temp.fill_outbox(100000, 1000);
+
+BEGIN;
+DROP INDEX idx_outbox_pending;
+CREATE INDEX idx_outbox_processed ON outbox_events(processed);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, aggregate_type, aggregate_id, event_type, retry_count, created_at
+FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+
+-- 1M processed rows
+SELECT pg_temp.fill_outbox(1000000, 1000);
+
+BEGIN;
+DROP INDEX idx_outbox_pending;
+CREATE INDEX idx_outbox_processed ON outbox_events(processed);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+ROLLBACK;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, aggregate_type, aggregate_id, event_type, retry_count, created_at
+FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT 100;
+
+TRUNCATE outbox_events;
@@ -0,0 +1,110 @@
+package com.ecommerce.order.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor mode load benchmark
+ *
+ * 200 concurrent clients (Tomcat's default thread count) each issue requests
+ * shaped like OrderServiceImpl.getOrderById: supplyAsync onto an executor,
+ * a 5 ms blocking database round trip on one of 50 pooled connections
+ * (a Hikari-sized semaphore), a little CPU for mapping, then join.
+ * Reports throughput and sampled latency percentiles (p99, p99.9) for:
+ * - commonPool: the old supplyAsync default, ForkJoin common pool
+ * - platform: a fixed platform pool of order.executor.pool-size (20) threads
+ * - virtual: AsyncConfiguration's virtual-thread executor
+ *
+ * The platform modes cap concurrent round trips at their thread count, below
+ * the 50 connections; virtual threads are only bounded by the connections.
+ * Requires Java 21.
+ *
+ * Run with the JMH plugin, e.g.: ./gradlew jmh (src/jmh/java source set)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(200)
+@Fork(1)
+public class ExecutorModeBenchmark {
+
+    private static final int DB_CONNECTIONS = 50;
+    private static final long DB_ROUND_TRIP_MILLIS = 5;
+    private static final int MAPPING_CPU_TOKENS = 2_000;
+    private static final int PLATFORM_POOL_SIZE = 20;
+
+    @Param({"commonPool", "platform", "virtual"})
+    private String mode;
+
+    private Executor executor;
+    private Semaphore connections;
+
+    @Setup
+    public void setUp() {
+        connections = new Semaphore(DB_CONNECTIONS, true);
+        executor = switch (mode) {
+            case "commonPool" -> ForkJoinPool.commonPool();
+            case "platform" -> {
+                ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+                pool.setCorePoolSize(PLATFORM_POOL_SIZE);
+                pool.setMaxPoolSize(PLATFORM_POOL_SIZE);
+                pool.setQueueCapacity(1000);
+                pool.setThreadNamePrefix("order-");
+                pool.initialize();
+                yield pool;
+            }
+            case "virtual" -> AsyncConfiguration.virtualThreadExecutor("order-", -1);
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof VirtualThreadTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+
+    @Benchmark
+    public long request() {
+        return CompletableFuture.supplyAsync(() -> {
+            queryDatabase();
+            Blackhole.consumeCPU(MAPPING_CPU_TOKENS);
+            return System.nanoTime();
+        }, executor).join();
+    }
+
+    private void queryDatabase() {
+        connections.acquireUninterruptibly();
+        try {
+            Thread.sleep(DB_ROUND_TRIP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.release();
+        }
+    }
+}
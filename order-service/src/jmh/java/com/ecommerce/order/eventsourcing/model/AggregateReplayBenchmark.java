@@ -0,0 +1,164 @@
+package com.ecommerce.order.eventsourcing.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate replay throughput benchmark
+ * 
+ * Replays a 500-event stream into a fresh aggregate and reports events replayed
+ * per second (ops/s, one op per event):
+ * - replayCachedHandlers: AggregateRoot.rehydrate with cached MethodHandle dispatch
+ * - replayReflectiveLookup: the previous dispatch, scanning getDeclaredMethods()
+ *   and invoking reflectively for every event, as a baseline
+ * 
+ * Run with the JMH plugin, e.g.: ./gradlew jmh (src/jmh/java source set)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateReplayBenchmark {
+
+    private static final int EVENTS = 500;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = new ArrayList<>(EVENTS);
+        events.add(new CartOpened("cart-1"));
+        for (int i = 1; i < EVENTS - 1; i++) {
+            events.add(i % 5 == 0
+                ? new ItemRemoved("cart-1", "sku-" + (i - 1))
+                : new ItemAdded("cart-1", "sku-" + i, BigDecimal.valueOf(i)));
+        }
+        events.add(new CartClosed("cart-1"));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public CartAggregate replayCachedHandlers() {
+        CartAggregate cart = new CartAggregate();
+        cart.rehydrate(events);
+        return cart;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public CartAggregate replayReflectiveLookup() throws Exception {
+        CartAggregate cart = new CartAggregate();
+        for (Event event : events) {
+            Method handler = null;
+            for (Method method : cart.getClass().getDeclaredMethods()) {
+                if (method.getName().equals("on") && method.getParameterCount() == 1
+                        && method.getParameterTypes()[0].equals(event.getClass())) {
+                    handler = method;
+                }
+            }
+            if (handler != null) {
+                handler.setAccessible(true);
+                handler.invoke(cart, event);
+            }
+        }
+        return cart;
+    }
+
+    public static class CartAggregate extends AggregateRoot {
+
+        private final List<String> skus = new ArrayList<>();
+        private BigDecimal total = BigDecimal.ZERO;
+        private boolean open;
+
+        @Override
+        public String getAggregateType() {
+            return "Cart";
+        }
+
+        private void on(CartOpened event) {
+            setId(event.getAggregateId());
+            open = true;
+        }
+
+        private void on(ItemAdded event) {
+            skus.add(event.sku);
+            total = total.add(event.price);
+        }
+
+        private void on(ItemRemoved event) {
+            skus.remove(event.sku);
+        }
+
+        private void on(CartClosed event) {
+            open = false;
+        }
+    }
+
+    abstract static class CartEvent extends Event {
+
+        private final String cartId;
+
+        CartEvent(String cartId) {
+            this.cartId = cartId;
+        }
+
+        @Override
+        public String getAggregateId() {
+            return cartId;
+        }
+
+        @Override
+        public String getAggregateType() {
+            return "Cart";
+        }
+    }
+
+    static class CartOpened extends CartEvent {
+        CartOpened(String cartId) {
+            super(cartId);
+        }
+    }
+
+    static class ItemAdded extends CartEvent {
+        final String sku;
+        final BigDecimal price;
+
+        ItemAdded(String cartId, String sku, BigDecimal price) {
+            super(cartId);
+            this.sku = sku;
+            this.price = price;
+        }
+    }
+
+    static class ItemRemoved extends CartEvent {
+        final String sku;
+
+        ItemRemoved(String cartId, String sku) {
+            super(cartId);
+            this.sku = sku;
+        }
+    }
+
+    static class CartClosed extends CartEvent {
+        CartClosed(String cartId) {
+            super(cartId);
+        }
+    }
+}
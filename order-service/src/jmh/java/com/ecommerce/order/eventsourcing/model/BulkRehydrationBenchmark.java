@@ -0,0 +1,120 @@
+package com.ecommerce.order.eventsourcing.model;
+
+import com.ecommerce.order.eventsourcing.model.AggregateReplayBenchmark.CartAggregate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk rehydration benchmark
+ *
+ * Rehydrates 10,000 aggregates of 20 events each, the CPU side of
+ * EventStoreService.loadAggregates, and reports milliseconds per bulk load:
+ * - sequential: one aggregate after another, as N loadAggregate calls would
+ * - forkJoin: split in halves down to 64 aggregates on a ForkJoinPool of
+ *   the given parallelism (eventsourcing.bulk-load.parallelism)
+ *
+ * The fetch side is measured by benchmarks/aggregate_bulk_load.sql.
+ *
+ * Run with the JMH plugin, e.g.: ./gradlew jmh (src/jmh/java source set)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkRehydrationBenchmark {
+
+    private static final int AGGREGATES = 10_000;
+    private static final int EVENTS_PER_AGGREGATE = 20;
+    private static final int SPLIT_THRESHOLD = 64;
+
+    @Param({"2", "4", "8"})
+    private int parallelism;
+
+    private List<List<Event>> streams;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        streams = new ArrayList<>(AGGREGATES);
+        for (int a = 0; a < AGGREGATES; a++) {
+            String cartId = "cart-" + a;
+            List<Event> events = new ArrayList<>(EVENTS_PER_AGGREGATE);
+            events.add(new AggregateReplayBenchmark.CartOpened(cartId));
+            for (int i = 1; i < EVENTS_PER_AGGREGATE - 1; i++) {
+                events.add(new AggregateReplayBenchmark.ItemAdded(cartId, "sku-" + i, BigDecimal.valueOf(i)));
+            }
+            events.add(new AggregateReplayBenchmark.CartClosed(cartId));
+            streams.add(events);
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CartAggregate[] sequential() {
+        CartAggregate[] loaded = new CartAggregate[AGGREGATES];
+        rehydrate(loaded, 0, AGGREGATES);
+        return loaded;
+    }
+
+    @Benchmark
+    public CartAggregate[] forkJoin() {
+        CartAggregate[] loaded = new CartAggregate[AGGREGATES];
+        pool.invoke(new RehydrateTask(loaded, 0, AGGREGATES));
+        return loaded;
+    }
+
+    private void rehydrate(CartAggregate[] loaded, int from, int to) {
+        for (int i = from; i < to; i++) {
+            CartAggregate cart = new CartAggregate();
+            cart.rehydrate(streams.get(i));
+            loaded[i] = cart;
+        }
+    }
+
+    private final class RehydrateTask extends RecursiveAction {
+
+        private final CartAggregate[] loaded;
+        private final int from;
+        private final int to;
+
+        RehydrateTask(CartAggregate[] loaded, int from, int to) {
+            this.loaded = loaded;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RehydrateTask(loaded, from, mid), new RehydrateTask(loaded, mid, to));
+                return;
+            }
+            rehydrate(loaded, from, to);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.order.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -9,16 +10,45 @@ import java.util.concurrent.Executor;
 
 /**
  * Async Configuration for Saga Execution
- * 
+ *
  * Provides dedicated thread pool for saga orchestration:
  * - Isolates saga execution from main application threads
  * - Prevents saga execution from blocking HTTP request handling
  * - Configurable pool size for different workloads
+ *
+ * Also provides the executor for OrderService's async JPA work (orderExecutor)
+ * and the default @Async executor (taskExecutor).
+ *
+ * Virtual Threads (spring.threads.virtual.enabled=true):
+ * The same switch that moves Tomcat request handling onto virtual threads
+ * makes every executor here start one virtual thread per task instead of
+ * queueing on a small platform pool. Blocking JPA, JDBC and Kafka calls then
+ * park cheaply, and concurrency is bounded by the Hikari pool and the
+ * optional *.virtual-concurrency-limit properties (-1 = unbounded) rather
+ * than by thread counts. The limit is enforced inside each task (see
+ * VirtualThreadTaskExecutor), never by blocking the submitting thread, which
+ * may be the saga-retry scheduler or hold a saga's lock. Code on these paths
+ * should avoid blocking inside synchronized blocks, which pins the carrier
+ * thread on Java 21.
+ *
+ * Compare both modes with ExecutorModeBenchmark (src/jmh).
  */
 @Configuration
 @EnableAsync
 public class AsyncConfiguration {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${saga.executor.virtual-concurrency-limit:-1}")
+    private int sagaConcurrencyLimit;
+
+    @Value("${order.executor.pool-size:20}")
+    private int orderPoolSize;
+
+    @Value("${order.executor.virtual-concurrency-limit:-1}")
+    private int orderConcurrencyLimit;
+
     /**
      * Executor for saga operations
      * - Core pool: 10 threads
@@ -28,6 +58,9 @@ public class AsyncConfiguration {
      */
     @Bean(name = "sagaExecutor")
     public Executor sagaExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("saga-", sagaConcurrencyLimit);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(20);
@@ -38,4 +71,49 @@ public class AsyncConfiguration {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor for OrderService's blocking JPA work
+     * - Platform mode: order.executor.pool-size threads (default 20, matching
+     *   the database bulkhead) instead of the shared ForkJoin common pool
+     */
+    @Bean(name = "orderExecutor")
+    public Executor orderExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("order-", orderConcurrencyLimit);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(orderPoolSize);
+        executor.setMaxPoolSize(orderPoolSize);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("order-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Default executor for @Async methods without a qualifier
+     * Declared because the executors above replace Spring Boot's applicationTaskExecutor.
+     */
+    @Bean(name = "taskExecutor")
+    public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("async-", -1);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setThreadNamePrefix("async-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * One virtual thread per task, optionally throttled to a number of concurrent tasks
+     */
+    static VirtualThreadTaskExecutor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        return new VirtualThreadTaskExecutor(threadNamePrefix, concurrencyLimit);
+    }
 }
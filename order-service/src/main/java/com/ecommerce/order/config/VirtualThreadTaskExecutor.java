@@ -0,0 +1,95 @@
+package com.ecommerce.order.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual-thread executor that never blocks its caller
+ *
+ * Every task gets its own virtual thread right away. The optional concurrency
+ * limit is applied inside the task: its virtual thread waits for a permit
+ * before running the work. Submitters (the saga-retry scheduler, or a thread
+ * holding a saga's lock) therefore never wait, unlike with
+ * SimpleAsyncTaskExecutor.setConcurrencyLimit, which blocks execute().
+ *
+ * A task interrupted while waiting for its permit (e.g. a step cancelled at
+ * its deadline) is dropped without running.
+ *
+ * Tracks its tasks for the same gauges as a platform pool: running
+ * (getActiveCount) and waiting for a permit (getQueuedCount).
+ */
+public class VirtualThreadTaskExecutor implements TaskExecutor, AutoCloseable {
+
+    private final SimpleAsyncTaskExecutor delegate;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * @param threadNamePrefix Prefix of the virtual threads' names
+     * @param concurrencyLimit Maximum tasks running at once, -1 for unbounded
+     */
+    public VirtualThreadTaskExecutor(String threadNamePrefix, int concurrencyLimit) {
+        this.delegate = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        this.delegate.setVirtualThreads(true);
+        // Wait for running tasks on shutdown, like the platform pools
+        this.delegate.setTaskTerminationTimeout(30_000);
+        this.permits = concurrencyLimit > 0 ? new Semaphore(concurrencyLimit) : null;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            if (permits != null) {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Tasks currently running
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Tasks started but still waiting for a permit
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -1,20 +0,0 @@
-package com.ecommerce.order.event;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.util.UUID;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class PaymentCompletedEvent {
-
-    private UUID orderId;
-    private boolean success;
-    private String paymentId;
-    private String message;
-}
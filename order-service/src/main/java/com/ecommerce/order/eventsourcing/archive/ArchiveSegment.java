@@ -0,0 +1,307 @@
+package com.ecommerce.order.eventsourcing.archive;
+
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Archive Segment
+ *
+ * One immutable cold segment: the domain_events with global_position in
+ * (fromPosition, toPosition], written once and never modified.
+ *
+ * Files:
+ * - segment-{from}-{to}.seg: a header, then one deflate-compressed block per
+ *   aggregate holding its events in sequence order
+ * - segment-{from}-{to}.idx: one entry per block (aggregate, offset, lengths,
+ *   sequence range)
+ *
+ * The index is written last, so a segment without one is an interrupted write
+ * and is ignored. Blocks are read from a read-only memory mapping of the .seg
+ * file and inflated straight from it.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x45534547; // "ESEG"
+    private static final int FORMAT_VERSION = 1;
+    private static final Pattern FILE_NAME = Pattern.compile("segment-(\\d{20})-(\\d{20})\\.idx");
+
+    private final Path segmentFile;
+    private final Path indexFile;
+    private final long fromPosition;
+    private final long toPosition;
+
+    private volatile MappedByteBuffer mapped;
+
+    /**
+     * Location of one aggregate's events within a segment
+     */
+    record Entry(ArchiveSegment segment, String aggregateType, String aggregateId, long offset,
+                 int compressedLength, int uncompressedLength, long firstSequence, long lastSequence) {
+    }
+
+    private ArchiveSegment(Path directory, long fromPosition, long toPosition) {
+        String baseName = String.format("segment-%020d-%020d", fromPosition, toPosition);
+        this.segmentFile = directory.resolve(baseName + ".seg");
+        this.indexFile = directory.resolve(baseName + ".idx");
+        this.fromPosition = fromPosition;
+        this.toPosition = toPosition;
+    }
+
+    long getFromPosition() {
+        return fromPosition;
+    }
+
+    long getToPosition() {
+        return toPosition;
+    }
+
+    Path getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Open a complete segment by its index file, null if the name is not a segment index
+     */
+    static ArchiveSegment open(Path indexFile) {
+        Matcher matcher = FILE_NAME.matcher(indexFile.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new ArchiveSegment(indexFile.getParent(),
+            Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+    }
+
+    /**
+     * Write events (ordered by global position) as a new segment
+     */
+    static ArchiveSegment write(Path directory, long fromPosition, long toPosition, List<DomainEvent> events)
+            throws IOException {
+        ArchiveSegment segment = new ArchiveSegment(directory, fromPosition, toPosition);
+
+        // Group by aggregate; global order keeps each group in sequence order
+        Map<String, List<DomainEvent>> byAggregate = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                key -> new ArrayList<>()).add(event);
+        }
+
+        Path segmentTmp = directory.resolve(segment.segmentFile.getFileName() + ".tmp");
+        Path indexTmp = directory.resolve(segment.indexFile.getFileName() + ".tmp");
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        indexOut.writeInt(MAGIC);
+        indexOut.writeInt(FORMAT_VERSION);
+        indexOut.writeInt(byAggregate.size());
+
+        try (FileChannel channel = FileChannel.open(segmentTmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            long offset = channel.write(header);
+
+            for (List<DomainEvent> stream : byAggregate.values()) {
+                byte[] raw = encode(stream);
+                byte[] block = deflate(raw);
+                channel.write(ByteBuffer.wrap(block));
+
+                DomainEvent first = stream.get(0);
+                indexOut.writeUTF(first.getAggregateType());
+                indexOut.writeUTF(first.getAggregateId());
+                indexOut.writeLong(offset);
+                indexOut.writeInt(block.length);
+                indexOut.writeInt(raw.length);
+                indexOut.writeLong(first.getSequenceNumber());
+                indexOut.writeLong(stream.get(stream.size() - 1).getSequenceNumber());
+                offset += block.length;
+            }
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + offset + " bytes");
+            }
+            channel.force(true);
+        }
+
+        try (FileChannel channel = FileChannel.open(indexTmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(index.toByteArray()));
+            channel.force(true);
+        }
+
+        Files.move(segmentTmp, segment.segmentFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, segment.indexFile, StandardCopyOption.ATOMIC_MOVE);
+        return segment;
+    }
+
+    /**
+     * Read the segment's index
+     */
+    List<Entry> readIndex() throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(indexFile)))) {
+            checkHeader(in.readInt(), in.readInt(), indexFile);
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new Entry(this, in.readUTF(), in.readUTF(), in.readLong(),
+                    in.readInt(), in.readInt(), in.readLong(), in.readLong()));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Read one aggregate's block from the mapped segment
+     */
+    List<DomainEvent> read(Entry entry) {
+        ByteBuffer block = mapped().slice((int) entry.offset(), entry.compressedLength());
+        byte[] raw = new byte[entry.uncompressedLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            int inflated = inflater.inflate(raw);
+            if (inflated != raw.length || !inflater.finished()) {
+                throw new IllegalStateException("Corrupt block for " + entry.aggregateId() + " in " + segmentFile);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block for " + entry.aggregateId() + " in " + segmentFile, e);
+        } finally {
+            inflater.end();
+        }
+
+        try {
+            return decode(raw, entry.aggregateType(), entry.aggregateId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode block in " + segmentFile, e);
+        }
+    }
+
+    /**
+     * Map the segment file on first read; the mapping lives as long as the segment
+     */
+    private MappedByteBuffer mapped() {
+        MappedByteBuffer buffer = mapped;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = mapped;
+                if (buffer == null) {
+                    try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to map " + segmentFile, e);
+                    }
+                    checkHeader(buffer.getInt(0), buffer.getInt(4), segmentFile);
+                    mapped = buffer;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    private static void checkHeader(int magic, int version, Path file) {
+        if (magic != MAGIC || version != FORMAT_VERSION) {
+            throw new IllegalStateException("Not a version " + FORMAT_VERSION + " archive segment: " + file);
+        }
+    }
+
+    private static byte[] encode(List<DomainEvent> stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(stream.size());
+        for (DomainEvent event : stream) {
+            out.writeLong(event.getEventId().getMostSignificantBits());
+            out.writeLong(event.getEventId().getLeastSignificantBits());
+            writeString(out, event.getEventType());
+            out.writeInt(event.getEventVersion());
+            out.writeLong(event.getSequenceNumber());
+            out.writeLong(event.getGlobalPosition());
+            out.writeLong(event.getOccurredOn().getEpochSecond());
+            out.writeInt(event.getOccurredOn().getNano());
+            writeString(out, event.getPayload());
+            writeString(out, event.getMetadata());
+            writeString(out, event.getCorrelationId());
+            writeString(out, event.getCausationId());
+            writeString(out, event.getUserId());
+            out.writeLong(event.getVersion() != null ? event.getVersion() : 0L);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<DomainEvent> decode(byte[] raw, String aggregateType, String aggregateId) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        int count = in.readInt();
+        List<DomainEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(DomainEvent.builder()
+                .eventId(new UUID(in.readLong(), in.readLong()))
+                .aggregateId(aggregateId)
+                .aggregateType(aggregateType)
+                .eventType(readString(in))
+                .eventVersion(in.readInt())
+                .sequenceNumber(in.readLong())
+                .globalPosition(in.readLong())
+                .occurredOn(Instant.ofEpochSecond(in.readLong(), in.readInt()))
+                .payload(readString(in))
+                .metadata(readString(in))
+                .correlationId(readString(in))
+                .causationId(readString(in))
+                .userId(readString(in))
+                .version(in.readLong())
+                .build());
+        }
+        return events;
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,232 @@
+package com.ecommerce.order.eventsourcing.archive;
+
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Event Archive
+ *
+ * Read side of the cold tier: the ArchiveSegment files under
+ * eventsourcing.archive.directory, with an in-memory index from aggregate to
+ * the segment blocks holding its archived events.
+ *
+ * Archived events are always a prefix of an aggregate's stream (everything up
+ * to a global position), so EventStoreService reads the archive only when the
+ * hot domain_events rows do not start where the replay needs them to.
+ * Projections replaying from an earlier position than getArchivedThrough()
+ * read whole segments in global order with readSegmentAfter.
+ *
+ * With several instances the directory must be shared; each instance picks up
+ * new segments every eventsourcing.archive.refresh-interval-ms, and on demand
+ * when a replay finds history missing, at most once per
+ * eventsourcing.archive.on-demand-refresh-interval-ms.
+ */
+@Component
+@Slf4j
+public class EventArchive {
+
+    private final Path directory;
+    private final Map<String, List<ArchiveSegment.Entry>> index = new ConcurrentHashMap<>();
+    private final Set<Path> loadedSegments = new HashSet<>();
+    private volatile List<ArchiveSegment> segments = List.of();
+
+    private volatile long archivedThrough;
+
+    private final long onDemandRefreshIntervalNanos;
+    private final AtomicLong lastOnDemandRefreshNanos;
+
+    public EventArchive(@Value("${eventsourcing.archive.directory:data/event-archive}") Path directory,
+                        @Value("${eventsourcing.archive.on-demand-refresh-interval-ms:1000}")
+                        long onDemandRefreshIntervalMs) {
+        this.directory = directory;
+        this.onDemandRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(onDemandRefreshIntervalMs);
+        this.lastOnDemandRefreshNanos = new AtomicLong(System.nanoTime() - onDemandRefreshIntervalNanos);
+    }
+
+    /**
+     * Global position up to which events have been moved to segments
+     */
+    public long getArchivedThrough() {
+        return archivedThrough;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Archived events of an aggregate with sequence numbers in (afterSequence, beforeSequence)
+     */
+    public List<DomainEvent> read(String aggregateType, String aggregateId, long afterSequence, long beforeSequence) {
+        List<ArchiveSegment.Entry> entries = index.getOrDefault(key(aggregateType, aggregateId), List.of());
+        List<DomainEvent> events = new ArrayList<>();
+        for (ArchiveSegment.Entry entry : entries) {
+            if (entry.lastSequence() <= afterSequence || entry.firstSequence() >= beforeSequence) {
+                continue;
+            }
+            for (DomainEvent event : entry.segment().read(entry)) {
+                long sequence = event.getSequenceNumber();
+                if (sequence > afterSequence && sequence < beforeSequence) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Archived events after a global position, in global order, from the one
+     * segment that follows it; empty once the position is archivedThrough or later
+     *
+     * @throws IllegalStateException if the segment covering the position is missing
+     */
+    public Optional<ArchivedRange> readSegmentAfter(long afterPosition) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.getToPosition() <= afterPosition) {
+                continue;
+            }
+            if (segment.getFromPosition() > afterPosition) {
+                throw new IllegalStateException("No archive segment covers global positions ("
+                    + afterPosition + ", " + segment.getFromPosition() + "] in " + directory);
+            }
+            List<ArchiveSegment.Entry> entries;
+            try {
+                entries = segment.readIndex();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive index " + segment.getIndexFile(), e);
+            }
+            List<DomainEvent> events = new ArrayList<>();
+            for (ArchiveSegment.Entry entry : entries) {
+                for (DomainEvent event : segment.read(entry)) {
+                    if (event.getGlobalPosition() > afterPosition) {
+                        events.add(event);
+                    }
+                }
+            }
+            events.sort(Comparator.comparingLong(DomainEvent::getGlobalPosition));
+            return Optional.of(new ArchivedRange(events, segment.getToPosition()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether any events of the aggregate are archived
+     */
+    public boolean contains(String aggregateType, String aggregateId) {
+        return index.containsKey(key(aggregateType, aggregateId));
+    }
+
+    /**
+     * Highest archived sequence number of an aggregate
+     */
+    public Optional<Long> findMaxSequenceNumber(String aggregateType, String aggregateId) {
+        List<ArchiveSegment.Entry> entries = index.getOrDefault(key(aggregateType, aggregateId), List.of());
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(entries.size() - 1).lastSequence());
+    }
+
+    /**
+     * Load segments that appeared since the last refresh
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${eventsourcing.archive.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<ArchiveSegment> found;
+        try (Stream<Path> files = Files.list(directory)) {
+            found = files
+                .filter(file -> !loadedSegments.contains(file))
+                .map(ArchiveSegment::open)
+                .filter(segment -> segment != null)
+                .sorted(Comparator.comparingLong(ArchiveSegment::getFromPosition))
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive directory " + directory, e);
+        }
+        for (ArchiveSegment segment : found) {
+            register(segment);
+        }
+        if (!found.isEmpty()) {
+            log.info("Loaded {} archive segments; events archived through global position {}",
+                found.size(), archivedThrough);
+        }
+    }
+
+    /**
+     * Refresh for a reader that found history missing, unless one did so recently
+     * Only one caller per interval refreshes; the others return at once and see
+     * the index as it is, so a burst of misses never queues on the refresh lock.
+     *
+     * @return whether this call refreshed
+     */
+    public boolean refreshIfDue() {
+        long now = System.nanoTime();
+        long last = lastOnDemandRefreshNanos.get();
+        if (now - last < onDemandRefreshIntervalNanos || !lastOnDemandRefreshNanos.compareAndSet(last, now)) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    /**
+     * Add a complete segment to the index
+     */
+    synchronized void register(ArchiveSegment segment) {
+        if (!loadedSegments.add(segment.getIndexFile())) {
+            return;
+        }
+        List<ArchiveSegment.Entry> entries;
+        try {
+            entries = segment.readIndex();
+        } catch (IOException e) {
+            loadedSegments.remove(segment.getIndexFile());
+            throw new UncheckedIOException("Failed to read archive index " + segment.getIndexFile(), e);
+        }
+        for (ArchiveSegment.Entry entry : entries) {
+            // Lists are replaced, never mutated, so readers need no lock
+            index.compute(key(entry.aggregateType(), entry.aggregateId()), (key, existing) -> {
+                List<ArchiveSegment.Entry> updated = existing == null ? new ArrayList<>() : new ArrayList<>(existing);
+                updated.add(entry);
+                updated.sort(Comparator.comparingLong(ArchiveSegment.Entry::firstSequence));
+                return List.copyOf(updated);
+            });
+        }
+        List<ArchiveSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(Comparator.comparingLong(ArchiveSegment::getFromPosition));
+        segments = List.copyOf(updated);
+        archivedThrough = Math.max(archivedThrough, segment.getToPosition());
+    }
+
+    private static String key(String aggregateType, String aggregateId) {
+        return aggregateType + ":" + aggregateId;
+    }
+
+    /**
+     * Archived events in global order, and the position the segment they came from ends at
+     */
+    public record ArchivedRange(List<DomainEvent> events, long throughPosition) {
+    }
+}
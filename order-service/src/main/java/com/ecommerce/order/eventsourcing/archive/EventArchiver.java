@@ -0,0 +1,140 @@
+package com.ecommerce.order.eventsourcing.archive;
+
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+import com.ecommerce.order.eventsourcing.repository.DomainEventRowMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Event Archiver
+ *
+ * Moves old domain_events rows into ArchiveSegment files so the hot table
+ * stays small, without losing history (replaces deleting by occurred_on).
+ *
+ * Each run, in segments of eventsourcing.archive.segment-events:
+ * 1. Read the next events after the archived position, in global order, up to
+ *    the first one newer than eventsourcing.archive.retention-days and never
+ *    past the slowest projection checkpoint
+ * 2. Write and fsync the segment, then its index
+ * 3. Delete the archived rows in the same transaction that read them
+ *
+ * Stopping at the first newer event keeps the archived events of every
+ * aggregate a prefix of its stream. If the delete fails after the files are
+ * written, the rows are deleted on the next run; until then reads prefer the
+ * hot rows.
+ *
+ * An advisory lock keeps concurrent instances from archiving at the same time.
+ * Enabled with eventsourcing.archive.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "eventsourcing.archive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EventArchiver {
+
+    private static final long ARCHIVE_LOCK_KEY = 0x45534547L;
+
+    private static final String READ_BATCH_SQL =
+        "SELECT " + DomainEventRowMapper.COLUMNS + " FROM domain_events " +
+        "WHERE global_position > ? AND global_position <= ? ORDER BY global_position LIMIT ?";
+
+    private static final String PROJECTION_LOW_WATER_SQL =
+        "SELECT COALESCE(MIN(global_position), " + Long.MAX_VALUE + ") FROM projection_checkpoints";
+
+    private final EventArchive eventArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${eventsourcing.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${eventsourcing.archive.segment-events:100000}")
+    private int segmentEvents;
+
+    /**
+     * Archive events older than the retention period
+     */
+    @Scheduled(cron = "${eventsourcing.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        try {
+            long archived = archiveOlderThan(Instant.now().minus(Duration.ofDays(retentionDays)));
+            if (archived > 0) {
+                log.info("Archived {} events through global position {}",
+                    archived, eventArchive.getArchivedThrough());
+            }
+        } catch (Exception e) {
+            log.error("Event archiving failed; retrying on next run", e);
+        }
+    }
+
+    /**
+     * Archive events that occurred before the cutoff
+     *
+     * @return number of events moved to segments
+     */
+    public long archiveOlderThan(Instant cutoff) {
+        eventArchive.refresh();
+        long total = 0;
+        Integer archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveSegment(cutoff));
+            total += archived != null ? archived : 0;
+        } while (archived != null && archived >= segmentEvents);
+        return total;
+    }
+
+    /**
+     * Write one segment and delete its rows, inside the current transaction
+     */
+    private int archiveSegment(Instant cutoff) {
+        Boolean locked = jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ARCHIVE_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Event archiving is running on another instance");
+            return 0;
+        }
+
+        long from = eventArchive.getArchivedThrough();
+        // Rows left behind by a run that wrote its segment but did not commit
+        jdbcTemplate.update("DELETE FROM domain_events WHERE global_position <= ?", from);
+
+        Long lowWater = jdbcTemplate.queryForObject(PROJECTION_LOW_WATER_SQL, Long.class);
+        List<DomainEvent> batch = jdbcTemplate.query(READ_BATCH_SQL, DomainEventRowMapper.INSTANCE,
+            from, lowWater != null ? lowWater : Long.MAX_VALUE, segmentEvents);
+
+        int eligible = 0;
+        while (eligible < batch.size() && batch.get(eligible).getOccurredOn().isBefore(cutoff)) {
+            eligible++;
+        }
+        if (eligible == 0) {
+            return 0;
+        }
+        List<DomainEvent> segmentBatch = batch.subList(0, eligible);
+        long to = segmentBatch.get(eligible - 1).getGlobalPosition();
+
+        try {
+            Files.createDirectories(eventArchive.getDirectory());
+            eventArchive.register(ArchiveSegment.write(eventArchive.getDirectory(), from, to, segmentBatch));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment", e);
+        }
+
+        int deleted = jdbcTemplate.update(
+            "DELETE FROM domain_events WHERE global_position > ? AND global_position <= ?", from, to);
+        log.debug("Archived global positions ({}, {}]: {} events, {} rows deleted", from, to, eligible, deleted);
+        return eligible;
+    }
+}
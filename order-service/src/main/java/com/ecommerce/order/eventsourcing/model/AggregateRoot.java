@@ -1,6 +1,13 @@
 package com.ecommerce.order.eventsourcing.model;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aggregate Root Base Class for Event Sourcing
@@ -46,6 +53,16 @@ import java.util.List;
  */
 public abstract class AggregateRoot {
     
+    /**
+     * Event handlers per aggregate class, resolved once and shared by all instances
+     */
+    private static final ClassValue<EventHandlers> EVENT_HANDLERS = new ClassValue<>() {
+        @Override
+        protected EventHandlers computeValue(Class<?> aggregateClass) {
+            return new EventHandlers(aggregateClass);
+        }
+    };
+    
     private String id;
     private long version = 0;
     private List<Event> uncommittedEvents = new java.util.ArrayList<>();
@@ -68,49 +85,88 @@ public abstract class AggregateRoot {
     
     /**
      * Handle event by invoking appropriate "on" method
-     * Uses reflection to call on(EventType) methods
+     * Handlers are resolved once per (aggregate class, event class) and invoked
+     * through cached MethodHandles, so replay does no reflective lookups
      */
-    @SuppressWarnings("unchecked")
     protected void handleEvent(Event event) {
+        MethodHandle handler = EVENT_HANDLERS.get(getClass()).handlerFor(event.getClass());
+        if (handler == null) {
+            return;
+        }
         try {
-            String methodName = "on";
-            Class<?> eventClass = event.getClass();
-            
-            java.lang.reflect.Method method = findEventHandler(eventClass);
-            if (method != null) {
-                method.setAccessible(true);
-                method.invoke(this, event);
-            }
-        } catch (Exception e) {
+            handler.invokeExact(this, event);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException("Failed to handle event: " + event.getEventType(), e);
         }
     }
     
     /**
-     * Find event handler method for the given event type
+     * Event handler table for one aggregate class
+     * 
+     * Resolution matches the declared "on" methods of the aggregate class:
+     * on(EventClass) for the exact event class, otherwise on(Event) as fallback.
      */
-    private java.lang.reflect.Method findEventHandler(Class<?> eventClass) {
-        String methodName = "on";
+    private static final class EventHandlers {
+        
+        private static final String HANDLER_NAME = "on";
+        private static final MethodType HANDLER_TYPE =
+            MethodType.methodType(void.class, AggregateRoot.class, Event.class);
+        
+        // Stands in for "no handler", since ConcurrentHashMap cannot hold null
+        private static final MethodHandle NO_HANDLER =
+            MethodHandles.empty(HANDLER_TYPE);
+        
+        private final Map<Class<?>, MethodHandle> declared = new HashMap<>();
+        private final MethodHandle fallback;
+        private final Map<Class<?>, MethodHandle> resolved = new ConcurrentHashMap<>();
         
-        // Look for method "on(EventClass)"
-        for (java.lang.reflect.Method method : this.getClass().getDeclaredMethods()) {
-            if (method.getName().equals(methodName) && 
-                method.getParameterCount() == 1 &&
-                method.getParameterTypes()[0].equals(eventClass)) {
-                return method;
+        EventHandlers(Class<?> aggregateClass) {
+            MethodHandle eventFallback = null;
+            for (Method method : aggregateClass.getDeclaredMethods()) {
+                if (!method.getName().equals(HANDLER_NAME) || method.getParameterCount() != 1) {
+                    continue;
+                }
+                Class<?> parameterType = method.getParameterTypes()[0];
+                if (!Event.class.isAssignableFrom(parameterType)) {
+                    continue;
+                }
+                MethodHandle handle = toHandle(method);
+                if (parameterType.equals(Event.class)) {
+                    eventFallback = handle;
+                } else {
+                    declared.put(parameterType, handle);
+                }
             }
+            this.fallback = eventFallback;
         }
         
-        // Look for method "on(Event)" as fallback
-        for (java.lang.reflect.Method method : this.getClass().getDeclaredMethods()) {
-            if (method.getName().equals(methodName) && 
-                method.getParameterCount() == 1 &&
-                method.getParameterTypes()[0].equals(Event.class)) {
-                return method;
-            }
+        /**
+         * Handler for an event class, or null if the aggregate does not handle it
+         */
+        MethodHandle handlerFor(Class<?> eventClass) {
+            MethodHandle handler = resolved.computeIfAbsent(eventClass, type -> {
+                MethodHandle exact = declared.get(type);
+                if (exact != null) {
+                    return exact;
+                }
+                return fallback != null ? fallback : NO_HANDLER;
+            });
+            return handler == NO_HANDLER ? null : handler;
         }
         
-        return null;
+        /**
+         * Adapt a handler method to (AggregateRoot, Event) -> void for invokeExact
+         */
+        private static MethodHandle toHandle(Method method) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(HANDLER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access event handler " + method, e);
+            }
+        }
     }
     
     /**
@@ -122,12 +178,22 @@ public abstract class AggregateRoot {
         
         for (Event event : events) {
             handleEvent(event);
-            version = event.getVersion();
+            // One version per stored event (Event.getVersion is the schema version)
+            version++;
         }
         
         isReplaying = false;
     }
     
+    /**
+     * Restore identity and version from a snapshot
+     * Called after the snapshot state was restored, before replaying later events
+     */
+    public void restoreFromSnapshot(String id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+    
     /**
      * Mark events as committed (clear uncommitted list)
      * Call this after successfully persisting events
@@ -0,0 +1,64 @@
+package com.ecommerce.order.eventsourcing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Aggregate Snapshot Entity for Event Sourcing
+ * 
+ * Serialized aggregate state as of a given event sequence number.
+ * Loading restores this state and replays only the events after it,
+ * so load time depends on events since the snapshot, not aggregate age.
+ * 
+ * Snapshots are kept out of domain_events: they are derived, replaceable
+ * data and must not take part in sequence numbering or event replay.
+ * Only the latest snapshot per aggregate is kept.
+ * 
+ * Snapshot Structure:
+ * - aggregateId / aggregateType: The aggregate this state belongs to
+ * - sequenceNumber: Sequence number of the last event included in the state
+ * - aggregateVersion: Aggregate version at that point
+ * - state: Serialized aggregate state (format owned by the SnapshotSerializer)
+ */
+@Entity
+@Table(name = "aggregate_snapshots", indexes = {
+    @Index(name = "idx_snapshot_aggregate", columnList = "aggregate_id, aggregate_type, sequence_number")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateSnapshot {
+
+    @Id
+    @Column(name = "snapshot_id")
+    private UUID snapshotId;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Column(name = "aggregate_type", nullable = false, length = 100)
+    private String aggregateType;
+
+    @Column(name = "sequence_number", nullable = false)
+    private Long sequenceNumber;
+
+    @Column(name = "aggregate_version", nullable = false)
+    private Long aggregateVersion;
+
+    @Lob
+    @Column(name = "state", nullable = false, columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.LONGVARCHAR)
+    private String state;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -27,6 +27,7 @@ import java.util.UUID;
  * - payload: Event data (JSON)
  * - metadata: Additional context (correlation ID, user ID, etc.)
  * - occurredOn: When the event happened
+ * - globalPosition: Position in the store-wide event order (assigned by the database)
  * 
  * Example:
  * ```
@@ -58,8 +59,13 @@ import java.util.UUID;
  * - Event-driven architecture support
  */
 @Entity
-@Table(name = "domain_events", indexes = {
+@Table(name = "domain_events", uniqueConstraints = {
+    // Optimistic concurrency: two appends can never claim the same sequence number
+    @UniqueConstraint(name = "uk_domain_events_aggregate_sequence",
+        columnNames = {"aggregate_id", "aggregate_type", "sequence_number"})
+}, indexes = {
     @Index(name = "idx_aggregate", columnList = "aggregate_id, aggregate_type"),
+    @Index(name = "idx_global_position", columnList = "global_position", unique = true),
     @Index(name = "idx_occurred_on", columnList = "occurred_on"),
     @Index(name = "idx_event_type", columnList = "event_type"),
     @Index(name = "idx_correlation", columnList = "correlation_id")
@@ -116,12 +122,11 @@ public class DomainEvent {
     private Long version;
 
     /**
-     * Check if this event is a snapshot
+     * Store-wide position, increasing in insert order
+     * Used by projections as a keyset cursor; may contain gaps from rolled-back appends
      */
-    @Transient
-    public boolean isSnapshot() {
-        return "Snapshot".equals(eventType);
-    }
+    @Column(name = "global_position", columnDefinition = "BIGSERIAL", insertable = false, updatable = false)
+    private Long globalPosition;
 
     /**
      * Get event age in milliseconds
@@ -0,0 +1,38 @@
+package com.ecommerce.order.eventsourcing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Projection Checkpoint Entity
+ * 
+ * Last global position a projection has processed. Updated in the same
+ * transaction as the projection's read model, so a restart resumes exactly
+ * where the last committed batch ended.
+ * 
+ * The row is also the projection's lock: a batch runs while holding it, so only
+ * one instance advances a projection at a time.
+ */
+@Entity
+@Table(name = "projection_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionCheckpoint {
+
+    @Id
+    @Column(name = "projection_name", length = 100)
+    private String projectionName;
+
+    @Column(name = "global_position", nullable = false)
+    private Long globalPosition;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.order.eventsourcing.repository;
+
+import com.ecommerce.order.eventsourcing.model.AggregateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Aggregate Snapshot Repository
+ * 
+ * Stores the latest snapshot per aggregate.
+ */
+@Repository
+public interface AggregateSnapshotRepository extends JpaRepository<AggregateSnapshot, UUID> {
+
+    /**
+     * Get the latest snapshot for an aggregate
+     */
+    Optional<AggregateSnapshot> findFirstByAggregateIdAndAggregateTypeOrderBySequenceNumberDesc(
+            String aggregateId, String aggregateType);
+
+    /**
+     * Delete snapshots superseded by a newer one
+     */
+    @Modifying
+    @Query("DELETE FROM AggregateSnapshot s WHERE s.aggregateId = :aggregateId " +
+           "AND s.aggregateType = :aggregateType AND s.sequenceNumber < :sequenceNumber")
+    int deleteOlderSnapshots(
+            @Param("aggregateId") String aggregateId,
+            @Param("aggregateType") String aggregateType,
+            @Param("sequenceNumber") Long sequenceNumber);
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.order.eventsourcing.repository;
+
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Domain Event Row Mapper
+ *
+ * Maps domain_events rows read with plain JDBC (projection streaming,
+ * archiving), where going through the entity manager would only add overhead.
+ */
+public final class DomainEventRowMapper implements RowMapper<DomainEvent> {
+
+    public static final DomainEventRowMapper INSTANCE = new DomainEventRowMapper();
+
+    /**
+     * Select list matching this mapper
+     */
+    public static final String COLUMNS =
+        "event_id, aggregate_id, aggregate_type, event_type, event_version, sequence_number, " +
+        "payload, metadata, correlation_id, causation_id, user_id, occurred_on, version, global_position";
+
+    private DomainEventRowMapper() {
+    }
+
+    @Override
+    public DomainEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return DomainEvent.builder()
+            .eventId(rs.getObject("event_id", UUID.class))
+            .aggregateId(rs.getString("aggregate_id"))
+            .aggregateType(rs.getString("aggregate_type"))
+            .eventType(rs.getString("event_type"))
+            .eventVersion(rs.getInt("event_version"))
+            .sequenceNumber(rs.getLong("sequence_number"))
+            .payload(rs.getString("payload"))
+            .metadata(rs.getString("metadata"))
+            .correlationId(rs.getString("correlation_id"))
+            .causationId(rs.getString("causation_id"))
+            .userId(rs.getString("user_id"))
+            .occurredOn(rs.getTimestamp("occurred_on").toInstant())
+            .version(rs.getLong("version"))
+            .globalPosition(rs.getLong("global_position"))
+            .build();
+    }
+}
@@ -1,7 +1,6 @@
 package com.ecommerce.order.eventsourcing.repository;
 
 import com.ecommerce.order.eventsourcing.model.DomainEvent;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,7 +19,6 @@ import java.util.Optional;
  * Query Capabilities:
  * - Load events by aggregate ID
  * - Load events by type and time range
- * - Get latest snapshot for aggregate
  * - Check for event existence
  */
 @Repository
@@ -39,17 +37,6 @@ public interface EventStoreRepository extends JpaRepository<DomainEvent, String>
     List<DomainEvent> findByAggregateIdAndAggregateTypeAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
             String aggregateId, String aggregateType, Long sequenceNumber);
 
-    /**
-     * Get the latest snapshot for an aggregate
-     */
-    @Query("SELECT e FROM DomainEvent e WHERE e.aggregateId = :aggregateId " +
-           "AND e.aggregateType = :aggregateType AND e.eventType = 'Snapshot' " +
-           "ORDER BY e.sequenceNumber DESC")
-    List<DomainEvent> findLatestSnapshot(
-            @Param("aggregateId") String aggregateId,
-            @Param("aggregateType") String aggregateType,
-            Pageable pageable);
-
     /**
      * Get the maximum sequence number for an aggregate
      */
@@ -81,10 +68,4 @@ public interface EventStoreRepository extends JpaRepository<DomainEvent, String>
      * Count events for aggregate
      */
     long countByAggregateIdAndAggregateType(String aggregateId, String aggregateType);
-
-    /**
-     * Delete old events (for archiving)
-     * Use with caution - breaks event sourcing guarantees
-     */
-    void deleteByOccurredOnBefore(Instant cutoff);
 }
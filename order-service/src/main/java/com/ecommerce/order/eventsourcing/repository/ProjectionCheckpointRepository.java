@@ -0,0 +1,35 @@
+package com.ecommerce.order.eventsourcing.repository;
+
+import com.ecommerce.order.eventsourcing.model.ProjectionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Projection Checkpoint Repository
+ */
+@Repository
+public interface ProjectionCheckpointRepository extends JpaRepository<ProjectionCheckpoint, String> {
+
+    /**
+     * Lock a projection's checkpoint for the current transaction
+     * Empty if another instance is running this projection right now
+     */
+    @Query(value = "SELECT * FROM projection_checkpoints WHERE projection_name = :name " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<ProjectionCheckpoint> lockCheckpoint(@Param("name") String projectionName);
+
+    /**
+     * Create a checkpoint at the start of the stream unless one exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO projection_checkpoints (projection_name, global_position, updated_at) " +
+                   "VALUES (:name, 0, now()) ON CONFLICT (projection_name) DO NOTHING",
+           nativeQuery = true)
+    int createIfMissing(@Param("name") String projectionName);
+}
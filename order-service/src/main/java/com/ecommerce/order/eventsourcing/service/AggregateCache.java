@@ -0,0 +1,96 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.model.AggregateRoot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Aggregate Cache
+ *
+ * Bounded, least-recently-used cache of rehydrated aggregates, so repeated
+ * commands on hot aggregates (an order during checkout and payment) skip
+ * loading and replaying events.
+ *
+ * Aggregates are mutable, so entries are handed out exclusively:
+ * - take() removes the aggregate from the cache; a concurrent command on the
+ *   same aggregate misses and loads its own copy from the store
+ * - put() returns it once its events are committed, keyed by id with its version;
+ *   an entry never replaces a newer version
+ *
+ * A cached aggregate can still be stale if another instance appended to it.
+ * That is caught on write: the append's expected version conflicts, and
+ * EventStoreService invalidates the entry.
+ *
+ * Size is eventsourcing.cache.max-size (default 1000, 0 disables the cache).
+ */
+@Component
+@Slf4j
+public class AggregateCache {
+
+    private final int maxSize;
+    private final Map<String, AggregateRoot> entries;
+
+    public AggregateCache(@Value("${eventsourcing.cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AggregateRoot> eldest) {
+                return size() > AggregateCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Remove and return a cached aggregate
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AggregateRoot> Optional<T> take(String aggregateType, String aggregateId) {
+        if (maxSize <= 0) {
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            return Optional.ofNullable((T) entries.remove(key(aggregateType, aggregateId)));
+        }
+    }
+
+    /**
+     * Cache a committed aggregate, unless a newer version is already cached
+     */
+    public void put(AggregateRoot aggregate) {
+        if (maxSize <= 0 || aggregate.hasUncommittedEvents()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.merge(key(aggregate.getAggregateType(), aggregate.getId()), aggregate,
+                (cached, committed) -> committed.getVersion() >= cached.getVersion() ? committed : cached);
+        }
+    }
+
+    /**
+     * Drop an aggregate, e.g. after a failed append
+     */
+    public void invalidate(String aggregateType, String aggregateId) {
+        synchronized (entries) {
+            entries.remove(key(aggregateType, aggregateId));
+        }
+        log.debug("Invalidated cached aggregate {} {}", aggregateType, aggregateId);
+    }
+
+    /**
+     * Number of cached aggregates
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static String key(String aggregateType, String aggregateId) {
+        return aggregateType + ":" + aggregateId;
+    }
+}
@@ -1,18 +1,42 @@
 package com.ecommerce.order.eventsourcing.service;
 
+import com.ecommerce.order.eventsourcing.archive.EventArchive;
 import com.ecommerce.order.eventsourcing.model.AggregateRoot;
+import com.ecommerce.order.eventsourcing.model.AggregateSnapshot;
 import com.ecommerce.order.eventsourcing.model.DomainEvent;
 import com.ecommerce.order.eventsourcing.model.Event;
+import com.ecommerce.order.eventsourcing.repository.AggregateSnapshotRepository;
+import com.ecommerce.order.eventsourcing.repository.DomainEventRowMapper;
 import com.ecommerce.order.eventsourcing.repository.EventStoreRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,15 +48,39 @@ import java.util.stream.Collectors;
  * Responsibilities:
  * 1. Append events to store (never update/delete)
  * 2. Load events to rebuild aggregates
- * 3. Optimistic concurrency control (version checking)
+ * 3. Optimistic concurrency control (expected version + unique sequence number)
  * 4. Snapshot management
- * 5. Event serialization/deserialization
+ * 5. Event serialization/deserialization (via EventTypeRegistry)
  * 
  * Event Storage Guarantees:
  * - Append-only (immutable events)
  * - Ordered by sequence number
  * - Atomic per aggregate
  * - Optimistic concurrency
+ * 
+ * Snapshots:
+ * Aggregate types with a SnapshotSerializer bean are snapshotted automatically
+ * every eventsourcing.snapshot.frequency events (default 100) when events are
+ * appended. loadAggregateFromSnapshot restores the latest snapshot and replays
+ * only the events after it.
+ * 
+ * Caching:
+ * Committed aggregates are kept in the AggregateCache, so the next command on
+ * a hot aggregate is served without loading or replaying events. The cache is
+ * only filled after the append's transaction commits, and a conflicting append
+ * invalidates the entry so the retry reloads from the store. An aggregate
+ * passed to appendEvents belongs to the cache afterwards; load it again for
+ * the next command.
+ * 
+ * Archive:
+ * Old events may have been moved from domain_events to archive segments
+ * (EventArchiver). Replays read the archived prefix of a stream from the
+ * memory-mapped segments and the rest from the table.
+ * 
+ * Bulk loading:
+ * loadAggregates fetches the events of many aggregates in a few
+ * aggregate_id = ANY(?) queries and rehydrates them in parallel on a dedicated
+ * ForkJoinPool (eventsourcing.bulk-load.parallelism, default one worker per core).
  */
 @Service
 @RequiredArgsConstructor
@@ -40,50 +88,189 @@ import java.util.stream.Collectors;
 public class EventStoreService {
 
     private final EventStoreRepository eventStoreRepository;
+    private final AggregateSnapshotRepository snapshotRepository;
     private final ObjectMapper objectMapper;
+    private final EventTypeRegistry eventTypeRegistry;
+    private final ObjectProvider<SnapshotSerializer<?>> snapshotSerializerProvider;
+    private final JdbcTemplate jdbcTemplate;
+    private final AggregateCache aggregateCache;
+    private final EventArchive eventArchive;
+
+    private static final String INSERT_EVENT_SQL =
+        "INSERT INTO domain_events (event_id, aggregate_id, aggregate_type, event_type, event_version, " +
+        "sequence_number, payload, metadata, correlation_id, causation_id, user_id, occurred_on, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String BULK_READ_SQL =
+        "SELECT " + DomainEventRowMapper.COLUMNS + " FROM domain_events " +
+        "WHERE aggregate_type = ? AND aggregate_id = ANY(?) ORDER BY aggregate_id, sequence_number";
+
+    /**
+     * Aggregates a fork-join task rehydrates without splitting further
+     */
+    private static final int REHYDRATE_SPLIT_THRESHOLD = 64;
+
+    @Value("${eventsourcing.snapshot.frequency:100}")
+    private int snapshotFrequency;
+
+    @Value("${eventsourcing.bulk-load.parallelism:0}")
+    private int bulkLoadParallelism;
+
+    @Value("${eventsourcing.bulk-load.ids-per-query:1000}")
+    private int bulkLoadIdsPerQuery;
+
+    private Map<String, SnapshotSerializer<?>> snapshotSerializers = Map.of();
+
+    private ForkJoinPool rehydrationPool;
+
+    /**
+     * Index snapshot serializers by aggregate type
+     */
+    @PostConstruct
+    void initSnapshotSerializers() {
+        this.snapshotSerializers = snapshotSerializerProvider.orderedStream()
+            .collect(Collectors.toMap(SnapshotSerializer::getAggregateType, Function.identity()));
+        if (!snapshotSerializers.isEmpty()) {
+            log.info("Snapshots enabled every {} events for aggregate types {}",
+                snapshotFrequency, snapshotSerializers.keySet());
+        }
+    }
+
+    /**
+     * Start the pool bulk loads rehydrate on
+     */
+    @PostConstruct
+    void initRehydrationPool() {
+        int parallelism = bulkLoadParallelism > 0 ? bulkLoadParallelism : Runtime.getRuntime().availableProcessors();
+        this.rehydrationPool = new ForkJoinPool(parallelism, pool -> {
+            var worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("event-rehydrate-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void shutdownRehydrationPool() {
+        rehydrationPool.shutdown();
+    }
 
     /**
      * Append uncommitted events from aggregate to store
      * 
+     * The expected version is the version the aggregate was loaded at,
+     * i.e. its current version minus the uncommitted events.
+     * 
      * @param aggregate The aggregate with uncommitted events
      * @throws OptimisticConcurrencyException if version conflict
      */
     @Transactional
     public void appendEvents(AggregateRoot aggregate) {
+        appendEvents(aggregate, aggregate.getVersion() - aggregate.getUncommittedEvents().size());
+    }
+
+    /**
+     * Append uncommitted events, expecting the stored stream to be at the given version
+     * 
+     * All events are inserted in one JDBC batch at sequence numbers
+     * expectedVersion, expectedVersion + 1, ... A concurrent writer that appended
+     * first already holds those sequence numbers, so the unique
+     * (aggregate_id, aggregate_type, sequence_number) constraint rejects the batch
+     * and the whole append rolls back. No read of the current version is needed.
+     * 
+     * @param aggregate The aggregate with uncommitted events
+     * @param expectedVersion Number of events the caller expects to be stored already
+     * @throws OptimisticConcurrencyException if another writer appended first
+     */
+    @Transactional
+    public void appendEvents(AggregateRoot aggregate, long expectedVersion) {
         if (!aggregate.hasUncommittedEvents()) {
             return;
         }
 
         String aggregateId = aggregate.getId();
         String aggregateType = aggregate.getAggregateType();
-        
-        // Get current sequence number for optimistic concurrency
-        Optional<Long> maxSeq = eventStoreRepository.findMaxSequenceNumber(
-            aggregateId, aggregateType);
-        long nextSequence = maxSeq.orElse(-1L) + 1;
-
         List<Event> uncommitted = aggregate.getUncommittedEvents();
         
+        List<DomainEvent> domainEvents = new ArrayList<>(uncommitted.size());
         for (int i = 0; i < uncommitted.size(); i++) {
             Event event = uncommitted.get(i);
-            
             try {
-                DomainEvent domainEvent = toDomainEvent(event, aggregateId, aggregateType, nextSequence + i);
-                eventStoreRepository.save(domainEvent);
-                log.debug("Appended event {} to aggregate {} (seq: {})",
-                    event.getEventType(), aggregateId, domainEvent.getSequenceNumber());
+                domainEvents.add(toDomainEvent(event, aggregateId, aggregateType, expectedVersion + i));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to append event: " + event.getEventType(), e);
             }
         }
 
+        try {
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, domainEvents, domainEvents.size(), this::bindEvent);
+        } catch (DuplicateKeyException e) {
+            aggregateCache.invalidate(aggregateType, aggregateId);
+            throw new OptimisticConcurrencyException(String.format(
+                "Concurrent modification of %s %s: expected version %d is no longer current",
+                aggregateType, aggregateId, expectedVersion));
+        }
+
         aggregate.markCommitted();
         log.info("Appended {} events to aggregate {} (version: {})",
             uncommitted.size(), aggregateId, aggregate.getVersion());
+
+        if (crossesSnapshotBoundary(aggregateType, expectedVersion, uncommitted.size())) {
+            saveSnapshot(aggregate, expectedVersion + uncommitted.size() - 1);
+        }
+
+        cacheAfterCommit(aggregate);
+    }
+
+    /**
+     * Cache the aggregate once the current transaction has committed
+     */
+    private void cacheAfterCommit(AggregateRoot aggregate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aggregateCache.put(aggregate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aggregateCache.put(aggregate);
+            }
+        });
+    }
+
+    /**
+     * Bind one event to INSERT_EVENT_SQL
+     */
+    private void bindEvent(PreparedStatement ps, DomainEvent event) throws SQLException {
+        ps.setObject(1, event.getEventId());
+        ps.setString(2, event.getAggregateId());
+        ps.setString(3, event.getAggregateType());
+        ps.setString(4, event.getEventType());
+        ps.setInt(5, event.getEventVersion());
+        ps.setLong(6, event.getSequenceNumber());
+        ps.setString(7, event.getPayload());
+        ps.setString(8, event.getMetadata());
+        ps.setString(9, event.getCorrelationId());
+        ps.setString(10, event.getCausationId());
+        ps.setString(11, event.getUserId());
+        ps.setTimestamp(12, Timestamp.from(event.getOccurredOn()));
+    }
+
+    /**
+     * Whether an append took the aggregate past a multiple of the snapshot frequency
+     * 
+     * @param eventsBefore Number of events stored before the append
+     * @param appended Number of events appended
+     */
+    private boolean crossesSnapshotBoundary(String aggregateType, long eventsBefore, int appended) {
+        if (snapshotFrequency <= 0 || !snapshotSerializers.containsKey(aggregateType)) {
+            return false;
+        }
+        return eventsBefore / snapshotFrequency != (eventsBefore + appended) / snapshotFrequency;
     }
 
     /**
      * Load aggregate from event store by replaying events
+     * Served from the AggregateCache when the aggregate is cached.
      * 
      * @param aggregateId The aggregate ID
      * @param aggregateType The aggregate type
@@ -95,9 +282,13 @@ public class EventStoreService {
             String aggregateType,
             AggregateFactory<T> factory) {
         
-        List<DomainEvent> domainEvents = eventStoreRepository
-            .findByAggregateIdAndAggregateTypeOrderBySequenceNumberAsc(
-                aggregateId, aggregateType);
+        Optional<T> cached = aggregateCache.take(aggregateType, aggregateId);
+        if (cached.isPresent()) {
+            log.debug("Loaded aggregate {} from cache (version: {})", aggregateId, cached.get().getVersion());
+            return cached.get();
+        }
+        
+        List<DomainEvent> domainEvents = loadEvents(aggregateId, aggregateType, -1);
 
         if (domainEvents.isEmpty()) {
             throw new AggregateNotFoundException(
@@ -121,32 +312,45 @@ public class EventStoreService {
 
     /**
      * Load aggregate from snapshot and subsequent events
-     * Optimization for aggregates with many events
+     * Optimization for aggregates with many events: load time is proportional
+     * to the events since the latest snapshot. Falls back to full replay when
+     * the aggregate type has no serializer or no snapshot exists yet.
      */
     public <T extends AggregateRoot> T loadAggregateFromSnapshot(
             String aggregateId,
             String aggregateType,
             AggregateFactory<T> factory) {
         
-        // Get latest snapshot
-        List<DomainEvent> snapshots = eventStoreRepository.findLatestSnapshot(
-            aggregateId, aggregateType, org.springframework.data.domain.PageRequest.of(0, 1));
+        Optional<T> cached = aggregateCache.take(aggregateType, aggregateId);
+        if (cached.isPresent()) {
+            log.debug("Loaded aggregate {} from cache (version: {})", aggregateId, cached.get().getVersion());
+            return cached.get();
+        }
+        
+        SnapshotSerializer<T> serializer = serializerFor(aggregateType);
+        Optional<AggregateSnapshot> snapshot = serializer == null
+            ? Optional.empty()
+            : snapshotRepository.findFirstByAggregateIdAndAggregateTypeOrderBySequenceNumberDesc(
+                aggregateId, aggregateType);
         
         T aggregate = factory.create();
-        long fromSequence = 0;
+        long afterSequence = -1;
         
-        if (!snapshots.isEmpty()) {
-            DomainEvent snapshot = snapshots.get(0);
-            // Deserialize snapshot state into aggregate
-            // This requires custom implementation per aggregate
-            fromSequence = snapshot.getSequenceNumber() + 1;
-            log.debug("Loading from snapshot at sequence {}", fromSequence);
+        if (snapshot.isPresent()) {
+            AggregateSnapshot latest = snapshot.get();
+            serializer.restore(aggregate, latest.getState());
+            aggregate.restoreFromSnapshot(aggregateId, latest.getAggregateVersion());
+            afterSequence = latest.getSequenceNumber();
+            log.debug("Restored aggregate {} from snapshot at sequence {}", aggregateId, afterSequence);
         }
 
         // Load subsequent events
-        List<DomainEvent> events = eventStoreRepository
-            .findByAggregateIdAndAggregateTypeAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
-                aggregateId, aggregateType, fromSequence);
+        List<DomainEvent> events = loadEvents(aggregateId, aggregateType, afterSequence);
+
+        if (snapshot.isEmpty() && events.isEmpty()) {
+            throw new AggregateNotFoundException(
+                "Aggregate not found: " + aggregateType + " " + aggregateId);
+        }
 
         List<Event> eventList = events.stream()
             .map(this::toEvent)
@@ -154,28 +358,203 @@ public class EventStoreService {
 
         aggregate.rehydrate(eventList);
         
-        log.info("Loaded aggregate {} from snapshot + {} events", aggregateId, events.size());
+        log.info("Loaded aggregate {} from {} + {} events (version: {})", aggregateId,
+            snapshot.isPresent() ? "snapshot" : "no snapshot", events.size(), aggregate.getVersion());
         
         return aggregate;
     }
 
+    /**
+     * Load many aggregates of one type by replaying their events
+     * 
+     * Events are fetched in chunks of eventsourcing.bulk-load.ids-per-query ids,
+     * one query per chunk, then deserialized and replayed in parallel. Meant for
+     * reports and recovery: the AggregateCache and snapshots are not used, and
+     * ids without events are left out of the result.
+     * 
+     * @return Rehydrated aggregates by id, in the order of aggregateIds
+     */
+    public <T extends AggregateRoot> Map<String, T> loadAggregates(
+            Collection<String> aggregateIds,
+            String aggregateType,
+            AggregateFactory<T> factory) {
+
+        List<String> ids = aggregateIds.stream().distinct().toList();
+        Map<String, List<DomainEvent>> eventsById = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += bulkLoadIdsPerQuery) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + bulkLoadIdsPerQuery));
+            List<DomainEvent> rows = jdbcTemplate.query(BULK_READ_SQL, ps -> {
+                ps.setString(1, aggregateType);
+                ps.setArray(2, ps.getConnection().createArrayOf("varchar", chunk.toArray()));
+            }, DomainEventRowMapper.INSTANCE);
+            for (DomainEvent row : rows) {
+                eventsById.computeIfAbsent(row.getAggregateId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // Ids with neither hot rows nor archived events are unknown; skip them
+        List<String> toLoad = new ArrayList<>(ids);
+        toLoad.removeIf(id -> !eventsById.containsKey(id) && !eventArchive.contains(aggregateType, id));
+
+        @SuppressWarnings("unchecked")
+        T[] loaded = (T[]) new AggregateRoot[toLoad.size()];
+        rehydrationPool.invoke(
+            new RehydrateTask<>(aggregateType, factory, toLoad, eventsById, loaded, 0, loaded.length));
+
+        Map<String, T> aggregates = new LinkedHashMap<>(loaded.length * 2);
+        for (int i = 0; i < loaded.length; i++) {
+            if (loaded[i] != null) {
+                aggregates.put(toLoad.get(i), loaded[i]);
+            }
+        }
+        log.info("Bulk loaded {} of {} {} aggregates", aggregates.size(), ids.size(), aggregateType);
+        return aggregates;
+    }
+
+    /**
+     * Stored events of an aggregate after a sequence number, in sequence order
+     * 
+     * Reads domain_events, and the archive only when the rows do not start right
+     * after afterSequence because that part of the stream has been archived.
+     * 
+     * @param afterSequence Last sequence number already applied, -1 for the whole stream
+     */
+    private List<DomainEvent> loadEvents(String aggregateId, String aggregateType, long afterSequence) {
+        List<DomainEvent> hot = afterSequence < 0
+            ? eventStoreRepository.findByAggregateIdAndAggregateTypeOrderBySequenceNumberAsc(
+                aggregateId, aggregateType)
+            : eventStoreRepository.findByAggregateIdAndAggregateTypeAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                aggregateId, aggregateType, afterSequence);
+        return withArchivedPrefix(aggregateId, aggregateType, afterSequence, hot);
+    }
+
+    /**
+     * Prepend the archived events missing between afterSequence and the first hot row
+     * 
+     * Without hot rows (an unknown id, or nothing newer than a snapshot) there is
+     * no sign of a missing prefix, so only the in-memory archive index is
+     * consulted; an aggregate it does not know is returned as is. The index is
+     * refreshed on demand (rate-limited) only when hot rows exist but start
+     * later than expected, i.e. their prefix must have been archived.
+     */
+    private List<DomainEvent> withArchivedPrefix(
+            String aggregateId, String aggregateType, long afterSequence, List<DomainEvent> hot) {
+        if (eventArchive.getArchivedThrough() == 0) {
+            return hot;
+        }
+        if (hot.isEmpty()) {
+            if (!eventArchive.contains(aggregateType, aggregateId)) {
+                return hot;
+            }
+        } else if (hot.get(0).getSequenceNumber() == afterSequence + 1) {
+            return hot;
+        }
+        long firstHot = hot.isEmpty() ? Long.MAX_VALUE : hot.get(0).getSequenceNumber();
+
+        List<DomainEvent> archived = eventArchive.read(aggregateType, aggregateId, afterSequence, firstHot);
+        if (!hot.isEmpty() && !isContiguous(archived, afterSequence, firstHot)
+                && eventArchive.refreshIfDue()) {
+            // Another instance may have archived it since our last refresh
+            archived = eventArchive.read(aggregateType, aggregateId, afterSequence, firstHot);
+        }
+        if (!isContiguous(archived, afterSequence, firstHot) && !(hot.isEmpty() && archived.isEmpty())) {
+            throw new IllegalStateException(String.format(
+                "Events of %s %s after sequence %d are archived but no archive segment holds them",
+                aggregateType, aggregateId, afterSequence));
+        }
+
+        List<DomainEvent> events = new ArrayList<>(archived.size() + hot.size());
+        events.addAll(archived);
+        events.addAll(hot);
+        log.debug("Read {} archived events for aggregate {}", archived.size(), aggregateId);
+        return events;
+    }
+
+    /**
+     * Whether archived events fill the stream from afterSequence + 1 up to the first hot event
+     */
+    private static boolean isContiguous(List<DomainEvent> archived, long afterSequence, long firstHot) {
+        long expected = afterSequence + 1;
+        for (DomainEvent event : archived) {
+            if (event.getSequenceNumber() != expected) {
+                return false;
+            }
+            expected++;
+        }
+        return firstHot == Long.MAX_VALUE ? !archived.isEmpty() : expected == firstHot;
+    }
+
     /**
      * Save snapshot for aggregate
      * Reduces replay time for aggregates with many events
+     * 
+     * The aggregate must be fully committed so its state matches the stored events.
+     * Does nothing for aggregate types without a SnapshotSerializer.
      */
     @Transactional
     public void saveSnapshot(AggregateRoot aggregate) {
-        // Snapshot logic depends on aggregate type
-        // Typically serializes current state to a Snapshot event
-        log.info("Saving snapshot for aggregate {} (version: {})",
-            aggregate.getId(), aggregate.getVersion());
+        if (aggregate.hasUncommittedEvents()) {
+            throw new IllegalStateException(
+                "Cannot snapshot aggregate with uncommitted events: " + aggregate.getId());
+        }
+        
+        long lastSequence = eventStoreRepository
+            .findMaxSequenceNumber(aggregate.getId(), aggregate.getAggregateType())
+            .or(() -> eventArchive.findMaxSequenceNumber(aggregate.getAggregateType(), aggregate.getId()))
+            .orElseThrow(() -> new AggregateNotFoundException(
+                "Aggregate not found: " + aggregate.getAggregateType() + " " + aggregate.getId()));
+        
+        saveSnapshot(aggregate, lastSequence);
+    }
+
+    /**
+     * Store the aggregate's state as of the given sequence number
+     * and drop the snapshots it supersedes
+     */
+    private void saveSnapshot(AggregateRoot aggregate, long lastSequence) {
+        SnapshotSerializer<AggregateRoot> serializer = serializerFor(aggregate.getAggregateType());
+        if (serializer == null) {
+            log.debug("No snapshot serializer for aggregate type {}", aggregate.getAggregateType());
+            return;
+        }
+        
+        String state;
+        try {
+            state = serializer.serialize(aggregate);
+        } catch (RuntimeException e) {
+            // Snapshots are an optimization; never fail the write because of one
+            log.warn("Failed to snapshot aggregate {}: {}", aggregate.getId(), e.getMessage());
+            return;
+        }
+        
+        snapshotRepository.save(AggregateSnapshot.builder()
+            .snapshotId(UUID.randomUUID())
+            .aggregateId(aggregate.getId())
+            .aggregateType(aggregate.getAggregateType())
+            .sequenceNumber(lastSequence)
+            .aggregateVersion(aggregate.getVersion())
+            .state(state)
+            .createdAt(Instant.now())
+            .build());
+        snapshotRepository.deleteOlderSnapshots(
+            aggregate.getId(), aggregate.getAggregateType(), lastSequence);
         
-        // Implementation would create a DomainEvent with eventType = "Snapshot"
-        // and payload = serialized aggregate state
+        log.info("Saved snapshot for aggregate {} at sequence {} (version: {})",
+            aggregate.getId(), lastSequence, aggregate.getVersion());
+    }
+
+    /**
+     * Snapshot serializer for an aggregate type, null if snapshots are not enabled for it
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends AggregateRoot> SnapshotSerializer<T> serializerFor(String aggregateType) {
+        return (SnapshotSerializer<T>) snapshotSerializers.get(aggregateType);
     }
 
     /**
      * Convert Event to DomainEvent entity
+     * The payload is serialized from the current class, so it is stored at the
+     * registry's current version, not the version the event was constructed with
      */
     private DomainEvent toDomainEvent(Event event, String aggregateId, 
                                        String aggregateType, long sequenceNumber) 
@@ -185,7 +564,7 @@ public class EventStoreService {
             .aggregateId(aggregateId)
             .aggregateType(aggregateType)
             .eventType(event.getEventType())
-            .eventVersion(event.getVersion())
+            .eventVersion(eventTypeRegistry.currentVersion(event.getEventType(), event.getVersion()))
             .sequenceNumber(sequenceNumber)
             .payload(objectMapper.writeValueAsString(event))
             .metadata(null) // Could add correlation ID, user ID, etc.
@@ -195,16 +574,12 @@ public class EventStoreService {
 
     /**
      * Convert DomainEvent entity back to Event
-     * Requires event type registry for deserialization
+     * Resolved through the event type registry (prebuilt reader, upcasting)
      */
-    @SuppressWarnings("unchecked")
     private Event toEvent(DomainEvent domainEvent) {
         try {
-            // Use event type to determine class
-            // In production, use a proper event registry
-            Class<? extends Event> eventClass = (Class<? extends Event>) 
-                Class.forName("com.ecommerce.order.event." + domainEvent.getEventType());
-            return objectMapper.readValue(domainEvent.getPayload(), eventClass);
+            return eventTypeRegistry.deserialize(
+                domainEvent.getEventType(), domainEvent.getEventVersion(), domainEvent.getPayload());
         } catch (Exception e) {
             throw new RuntimeException("Failed to deserialize event: " + 
                 domainEvent.getEventType(), e);
@@ -215,8 +590,54 @@ public class EventStoreService {
      * Check if aggregate exists
      */
     public boolean aggregateExists(String aggregateId, String aggregateType) {
-        return eventStoreRepository.existsByAggregateIdAndAggregateType(
-            aggregateId, aggregateType);
+        return eventStoreRepository.existsByAggregateIdAndAggregateType(aggregateId, aggregateType)
+            || eventArchive.contains(aggregateType, aggregateId);
+    }
+
+    /**
+     * Rehydrates ids[from, to) into loaded[from, to), splitting in halves down to
+     * REHYDRATE_SPLIT_THRESHOLD aggregates
+     */
+    private final class RehydrateTask<T extends AggregateRoot> extends RecursiveAction {
+
+        private final String aggregateType;
+        private final AggregateFactory<T> factory;
+        private final List<String> ids;
+        private final Map<String, List<DomainEvent>> eventsById;
+        private final T[] loaded;
+        private final int from;
+        private final int to;
+
+        RehydrateTask(String aggregateType, AggregateFactory<T> factory, List<String> ids,
+                      Map<String, List<DomainEvent>> eventsById, T[] loaded, int from, int to) {
+            this.aggregateType = aggregateType;
+            this.factory = factory;
+            this.ids = ids;
+            this.eventsById = eventsById;
+            this.loaded = loaded;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > REHYDRATE_SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RehydrateTask<>(aggregateType, factory, ids, eventsById, loaded, from, mid),
+                    new RehydrateTask<>(aggregateType, factory, ids, eventsById, loaded, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                String id = ids.get(i);
+                List<DomainEvent> events = withArchivedPrefix(
+                    id, aggregateType, -1, eventsById.getOrDefault(id, List.of()));
+                if (!events.isEmpty()) {
+                    T aggregate = factory.create();
+                    aggregate.rehydrate(events.stream().map(EventStoreService.this::toEvent).toList());
+                    loaded[i] = aggregate;
+                }
+            }
+        }
     }
 
     /**
@@ -0,0 +1,185 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.model.Event;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event Type Registry
+ * 
+ * Maps stored event types to event classes and deserializes payloads with
+ * a Jackson ObjectReader built once per type, instead of a Class.forName
+ * and reader lookup per event.
+ * 
+ * Registration:
+ * - Concrete Event subclasses under eventsourcing.event-packages
+ *   (default com.ecommerce.order.event) are registered at startup
+ *   under their simple class name, the default Event.getEventType()
+ * - Others can be registered explicitly with register(...)
+ * 
+ * Schema evolution:
+ * The current version of a type is one past its highest EventUpcaster.
+ * New events are always stored at the current version (see currentVersion),
+ * since they are serialized from the current class. Payloads stored at an
+ * older version are upcast step by step on read; current payloads take the
+ * fast path straight into the reader.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventTypeRegistry {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<EventUpcaster> upcasterProvider;
+
+    @Value("${eventsourcing.event-packages:com.ecommerce.order.event}")
+    private List<String> eventPackages;
+
+    private final Map<String, EventTypeDescriptor> eventTypes = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, EventUpcaster>> upcasters = new HashMap<>();
+
+    /**
+     * Index upcasters and register the event classes found in the configured packages
+     */
+    @PostConstruct
+    void init() {
+        upcasterProvider.orderedStream().forEach(upcaster -> {
+            EventUpcaster previous = upcasters
+                .computeIfAbsent(upcaster.getEventType(), type -> new HashMap<>())
+                .put(upcaster.getFromVersion(), upcaster);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate upcaster for " + upcaster.getEventType()
+                    + " v" + upcaster.getFromVersion());
+            }
+        });
+
+        ClassPathScanningCandidateComponentProvider scanner =
+            new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(Event.class));
+        for (String eventPackage : eventPackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(eventPackage)) {
+                register(loadEventClass(candidate.getBeanClassName()));
+            }
+        }
+
+        log.info("Registered {} event types", eventTypes.size());
+    }
+
+    /**
+     * Register an event class under its simple class name
+     */
+    public void register(Class<? extends Event> eventClass) {
+        register(eventClass.getSimpleName(), eventClass);
+    }
+
+    /**
+     * Register an event class under an explicit event type name
+     */
+    public void register(String eventType, Class<? extends Event> eventClass) {
+        Map<Integer, EventUpcaster> typeUpcasters = upcasters.getOrDefault(eventType, Map.of());
+        int currentVersion = typeUpcasters.keySet().stream()
+            .mapToInt(version -> version + 1)
+            .max()
+            .orElse(1);
+
+        EventTypeDescriptor previous = eventTypes.put(eventType, new EventTypeDescriptor(
+            eventClass, currentVersion, objectMapper.readerFor(eventClass), typeUpcasters));
+        if (previous != null && !previous.eventClass().equals(eventClass)) {
+            throw new IllegalStateException("Event type " + eventType + " registered for both "
+                + previous.eventClass().getName() + " and " + eventClass.getName());
+        }
+        log.debug("Registered event type {} -> {} (v{})", eventType, eventClass.getName(), currentVersion);
+    }
+
+    /**
+     * Check whether an event type is known
+     */
+    public boolean isRegistered(String eventType) {
+        return eventTypes.containsKey(eventType);
+    }
+
+    /**
+     * Schema version new events of a type are written with
+     * 
+     * @param eventType Event type
+     * @param fallback Version to use for an unregistered type
+     */
+    public int currentVersion(String eventType, int fallback) {
+        EventTypeDescriptor descriptor = eventTypes.get(eventType);
+        return descriptor != null ? descriptor.currentVersion() : fallback;
+    }
+
+    /**
+     * Deserialize a stored payload, upcasting it first if it predates the current schema
+     * 
+     * @param eventType Stored event type
+     * @param eventVersion Schema version the payload was written with (null = 1)
+     * @param payload JSON payload
+     */
+    public Event deserialize(String eventType, Integer eventVersion, String payload) throws IOException {
+        EventTypeDescriptor descriptor = eventTypes.get(eventType);
+        if (descriptor == null) {
+            throw new UnknownEventTypeException("Unknown event type: " + eventType);
+        }
+
+        int version = eventVersion != null ? eventVersion : 1;
+        if (version >= descriptor.currentVersion()) {
+            return descriptor.reader().readValue(payload);
+        }
+
+        JsonNode tree = descriptor.reader().readTree(payload);
+        if (!(tree instanceof ObjectNode node)) {
+            throw new IOException("Cannot upcast non-object payload of " + eventType);
+        }
+        for (int v = version; v < descriptor.currentVersion(); v++) {
+            EventUpcaster upcaster = descriptor.upcasters().get(v);
+            if (upcaster == null) {
+                throw new IllegalStateException("No upcaster for " + eventType + " v" + v);
+            }
+            node = upcaster.upcast(node);
+        }
+        return descriptor.reader().readValue(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Event> loadEventClass(String className) {
+        return (Class<? extends Event>) ClassUtils.resolveClassName(className, getClass().getClassLoader());
+    }
+
+    /**
+     * Registered event type: class, current schema version, prebuilt reader and upcasters
+     */
+    private record EventTypeDescriptor(
+            Class<? extends Event> eventClass,
+            int currentVersion,
+            ObjectReader reader,
+            Map<Integer, EventUpcaster> upcasters) {
+    }
+
+    /**
+     * Exception when a stored event type has no registered class
+     */
+    public static class UnknownEventTypeException extends RuntimeException {
+        public UnknownEventTypeException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Event Upcaster
+ * 
+ * Migrates a stored event payload from one schema version to the next,
+ * so old events can be read by the current event class without rewriting
+ * the stream. Register one bean per (event type, version) step; a chain
+ * v1 -> v2 -> v3 is applied in order when a v1 event is loaded.
+ * 
+ * Example (OrderCreated v1 -> v2, "total" renamed to "totalAmount"):
+ * ```java
+ * @Component
+ * public class OrderCreatedV1Upcaster implements EventUpcaster {
+ *     public String getEventType() { return "OrderCreatedEvent"; }
+ *     public int getFromVersion() { return 1; }
+ *     public ObjectNode upcast(ObjectNode payload) {
+ *         payload.set("totalAmount", payload.remove("total"));
+ *         return payload;
+ *     }
+ * }
+ * ```
+ */
+public interface EventUpcaster {
+
+    /**
+     * Event type this upcaster applies to (as stored in domain_events.event_type)
+     */
+    String getEventType();
+
+    /**
+     * Schema version of the payloads this upcaster accepts;
+     * the result is at version getFromVersion() + 1
+     */
+    int getFromVersion();
+
+    /**
+     * Transform the payload to the next schema version (may modify it in place)
+     */
+    ObjectNode upcast(ObjectNode payload);
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.model.AggregateRoot;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Field-based JSON snapshot serializer
+ * 
+ * Serializes an aggregate's fields (including private ones) with Jackson,
+ * so aggregates need no getters or annotations to be snapshotted.
+ * AggregateRoot's own bookkeeping fields are excluded; ID and version
+ * travel with the snapshot row instead.
+ * 
+ * Usage:
+ * ```java
+ * @Bean
+ * public SnapshotSerializer<Order> orderSnapshotSerializer(ObjectMapper objectMapper) {
+ *     return new JacksonSnapshotSerializer<>("Order", Order.class, objectMapper);
+ * }
+ * ```
+ */
+public class JacksonSnapshotSerializer<T extends AggregateRoot> implements SnapshotSerializer<T> {
+
+    private final String aggregateType;
+    private final ObjectWriter writer;
+    private final ObjectMapper mapper;
+
+    public JacksonSnapshotSerializer(String aggregateType, Class<T> aggregateClass, ObjectMapper objectMapper) {
+        this.aggregateType = aggregateType;
+        this.mapper = objectMapper.copy()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .addMixIn(AggregateRoot.class, AggregateRootMixIn.class);
+        this.writer = mapper.writerFor(aggregateClass);
+    }
+
+    @Override
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    @Override
+    public String serialize(T aggregate) {
+        try {
+            return writer.writeValueAsString(aggregate);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize snapshot for " + aggregateType, e);
+        }
+    }
+
+    @Override
+    public void restore(T aggregate, String state) {
+        try {
+            ObjectReader reader = mapper.readerForUpdating(aggregate);
+            reader.readValue(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to restore snapshot for " + aggregateType, e);
+        }
+    }
+
+    /**
+     * Excludes AggregateRoot bookkeeping from snapshot state
+     */
+    @JsonIgnoreProperties({"id", "version", "uncommittedEvents", "isReplaying"})
+    private abstract static class AggregateRootMixIn {
+    }
+}
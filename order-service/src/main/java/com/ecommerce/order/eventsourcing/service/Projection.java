@@ -0,0 +1,40 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+
+/**
+ * Projection
+ * 
+ * Builds a read model from the event stream. Register as a bean and
+ * ProjectionEngine feeds it every stored event in global order, starting
+ * from its checkpoint.
+ * 
+ * handle() runs inside the transaction that advances the checkpoint, so
+ * read model writes to the same database are applied exactly once.
+ */
+public interface Projection {
+
+    /**
+     * Unique projection name, used as checkpoint key
+     */
+    String getName();
+
+    /**
+     * Whether this projection is interested in an event type
+     * Events it skips still advance the checkpoint
+     */
+    default boolean handles(String eventType) {
+        return true;
+    }
+
+    /**
+     * Apply one event to the read model
+     */
+    void handle(DomainEvent event);
+
+    /**
+     * Clear the read model before a rebuild from the start of the stream
+     */
+    default void reset() {
+    }
+}
@@ -0,0 +1,327 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.archive.EventArchive;
+import com.ecommerce.order.eventsourcing.model.DomainEvent;
+import com.ecommerce.order.eventsourcing.model.ProjectionCheckpoint;
+import com.ecommerce.order.eventsourcing.repository.DomainEventRowMapper;
+import com.ecommerce.order.eventsourcing.repository.ProjectionCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection Engine
+ *
+ * Streams domain_events in global order to every Projection bean and keeps a
+ * persisted checkpoint per projection.
+ *
+ * Streaming:
+ * - Keyset cursor over global_position (WHERE global_position > checkpoint),
+ *   so each batch is an index range scan no matter how far into the stream
+ * - Fixed-size batches (eventsourcing.projections.batch-size), one transaction
+ *   each, so memory stays constant while rebuilding over millions of events
+ * - The checkpoint moves in the same transaction as the projection's writes
+ *
+ * Tailing:
+ * Every eventsourcing.projections.poll-interval-ms each projection catches up
+ * from its checkpoint. Positions are assigned at insert but become visible at
+ * commit, so a gap may be an append that has not committed yet, or one that
+ * rolled back and burned its BIGSERIAL value. A batch stops before a gap until
+ * every transaction that was running when the gap was first seen has ended
+ * (pg_snapshot_xmin has passed the pg_snapshot_xmax recorded then): a missing
+ * position still invisible after that was rolled back and is skipped. An
+ * append that commits late is therefore never skipped, however late it is.
+ * All gaps of a batch share one sighting and are skipped together, so a burst
+ * of rolled-back appends costs one wait rather than one per gap. A gap held
+ * open longer than eventsourcing.projections.gap-warn-ms (e.g. by a writing
+ * transaction left open) is logged.
+ *
+ * Archived history:
+ * Events before EventArchive.getArchivedThrough() are no longer in
+ * domain_events. A projection behind that position (rebuilt, or added after
+ * archiving started) first replays the archive segments in global order, in
+ * batches of the same size, and only then reads the hot table; it never
+ * treats the archived prefix as a gap.
+ *
+ * With several instances, the checkpoint row lock (FOR UPDATE SKIP LOCKED)
+ * lets only one of them advance a projection at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectionEngine {
+
+    private static final String READ_BATCH_SQL =
+        "SELECT " + DomainEventRowMapper.COLUMNS + " FROM domain_events " +
+        "WHERE global_position > ? ORDER BY global_position LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final ObjectProvider<Projection> projectionProvider;
+    private final EventArchive eventArchive;
+
+    @Value("${eventsourcing.projections.batch-size:500}")
+    private int batchSize;
+
+    @Value("${eventsourcing.projections.gap-warn-ms:5000}")
+    private long gapWarnMs;
+
+    private List<Projection> projections = List.of();
+
+    /**
+     * Gaps each projection is currently waiting on, by projection name
+     */
+    private final Map<String, GapSighting> openGaps = new ConcurrentHashMap<>();
+
+    /**
+     * Collect projections and make sure each has a checkpoint
+     */
+    @PostConstruct
+    void init() {
+        this.projections = projectionProvider.orderedStream().toList();
+        for (Projection projection : projections) {
+            transactionTemplate.executeWithoutResult(
+                status -> checkpointRepository.createIfMissing(projection.getName()));
+        }
+        if (!projections.isEmpty()) {
+            log.info("Running {} projections: {}", projections.size(),
+                projections.stream().map(Projection::getName).toList());
+        }
+    }
+
+    /**
+     * Tail the event store: bring every projection up to date
+     */
+    @Scheduled(fixedDelayString = "${eventsourcing.projections.poll-interval-ms:1000}")
+    public void tail() {
+        for (Projection projection : projections) {
+            try {
+                catchUp(projection);
+            } catch (Exception e) {
+                log.error("Projection {} failed; retrying on next poll", projection.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Process batches until the projection has caught up with the stream
+     *
+     * @return number of events the checkpoint advanced over
+     */
+    public long catchUp(Projection projection) {
+        long processed = catchUpFromArchive(projection);
+        Integer advanced;
+        do {
+            advanced = transactionTemplate.execute(status -> processBatch(projection));
+            processed += advanced != null ? advanced : 0;
+        } while (advanced != null && advanced >= batchSize);
+
+        if (processed > 0) {
+            log.debug("Projection {} advanced over {} events", projection.getName(), processed);
+        }
+        return processed;
+    }
+
+    /**
+     * Rebuild a projection's read model from the start of the stream
+     */
+    public long rebuild(String projectionName) {
+        Projection projection = projections.stream()
+            .filter(p -> p.getName().equals(projectionName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown projection: " + projectionName));
+
+        Boolean reset = transactionTemplate.execute(status -> {
+            Optional<ProjectionCheckpoint> checkpoint = checkpointRepository.lockCheckpoint(projectionName);
+            if (checkpoint.isEmpty()) {
+                return false;
+            }
+            projection.reset();
+            checkpoint.get().setGlobalPosition(0L);
+            checkpoint.get().setUpdatedAt(Instant.now());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(reset)) {
+            throw new IllegalStateException("Projection " + projectionName + " is running elsewhere");
+        }
+
+        // Pick up segments archived by other instances, so none is mistaken for a gap
+        eventArchive.refresh();
+        log.info("Rebuilding projection {} (archived through global position {})",
+            projectionName, eventArchive.getArchivedThrough());
+        return catchUp(projection);
+    }
+
+    /**
+     * Replay archive segments while the projection is behind the archived position
+     *
+     * @return number of events the checkpoint advanced over
+     */
+    private long catchUpFromArchive(Projection projection) {
+        long processed = 0;
+        while (true) {
+            long position = checkpointRepository.findById(projection.getName())
+                .map(ProjectionCheckpoint::getGlobalPosition)
+                .orElse(0L);
+            Optional<EventArchive.ArchivedRange> range = eventArchive.readSegmentAfter(position);
+            if (range.isEmpty()) {
+                return processed;
+            }
+
+            List<DomainEvent> events = range.get().events();
+            for (int from = 0; from < events.size() || from == 0; from += batchSize) {
+                List<DomainEvent> batch = events.subList(from, Math.min(from + batchSize, events.size()));
+                long through = from + batchSize >= events.size()
+                    ? range.get().throughPosition()
+                    : batch.get(batch.size() - 1).getGlobalPosition();
+                Integer advanced = transactionTemplate.execute(
+                    status -> processArchivedBatch(projection, position, batch, through));
+                if (advanced == null || advanced < 0) {
+                    // Held or moved by another instance; the next poll picks it up from there
+                    return processed;
+                }
+                processed += advanced;
+            }
+            log.debug("Projection {} replayed archive through global position {}",
+                projection.getName(), range.get().throughPosition());
+        }
+    }
+
+    /**
+     * Apply archived events after the checkpoint and move it to a position, inside the current transaction
+     *
+     * @param startPosition checkpoint position the replay of this segment started from
+     * @return number of events applied, or -1 if the checkpoint is locked elsewhere or moved
+     *         outside this segment
+     */
+    private int processArchivedBatch(Projection projection, long startPosition,
+                                     List<DomainEvent> batch, long throughPosition) {
+        Optional<ProjectionCheckpoint> locked = checkpointRepository.lockCheckpoint(projection.getName());
+        if (locked.isEmpty()) {
+            return -1;
+        }
+        ProjectionCheckpoint checkpoint = locked.get();
+        long position = checkpoint.getGlobalPosition();
+        if (position < startPosition || position >= throughPosition) {
+            return -1;
+        }
+
+        int applied = 0;
+        for (DomainEvent event : batch) {
+            if (event.getGlobalPosition() <= position) {
+                continue;
+            }
+            if (projection.handles(event.getEventType())) {
+                projection.handle(event);
+            }
+            applied++;
+        }
+
+        checkpoint.setGlobalPosition(throughPosition);
+        checkpoint.setUpdatedAt(Instant.now());
+        return applied;
+    }
+
+    /**
+     * Apply the next batch after the checkpoint, inside the current transaction
+     *
+     * @return number of events the checkpoint advanced over
+     */
+    private int processBatch(Projection projection) {
+        Optional<ProjectionCheckpoint> locked = checkpointRepository.lockCheckpoint(projection.getName());
+        if (locked.isEmpty()) {
+            // Another instance holds this projection
+            return 0;
+        }
+        ProjectionCheckpoint checkpoint = locked.get();
+        if (checkpoint.getGlobalPosition() < eventArchive.getArchivedThrough()) {
+            // Archived events still to replay; never read the archived prefix as a gap
+            return 0;
+        }
+
+        List<DomainEvent> batch = jdbcTemplate.query(
+            READ_BATCH_SQL, DomainEventRowMapper.INSTANCE, checkpoint.getGlobalPosition(), batchSize);
+
+        long position = checkpoint.getGlobalPosition();
+        long settledThrough = position;
+        int advanced = 0;
+
+        for (DomainEvent event : batch) {
+            if (event.getGlobalPosition() != position + 1 && position >= settledThrough) {
+                settledThrough = settledGapsThrough(projection, position, batch.get(batch.size() - 1));
+                if (position >= settledThrough) {
+                    // Possibly an append still in flight; wait for it
+                    break;
+                }
+            }
+            if (projection.handles(event.getEventType())) {
+                projection.handle(event);
+            }
+            position = event.getGlobalPosition();
+            advanced++;
+        }
+
+        if (advanced > 0) {
+            checkpoint.setGlobalPosition(position);
+            checkpoint.setUpdatedAt(Instant.now());
+        }
+        return advanced;
+    }
+
+    /**
+     * Up to which position the gaps after a position are settled (rolled back)
+     *
+     * The first call for a gap records a sighting covering every gap up to the
+     * end of the batch, with the snapshot xmax: all those positions were
+     * allocated by transactions that were running or done at that point.
+     * Once the oldest running transaction is past that xmax, they are all done.
+     *
+     * @return the last position of the settled sighting, or the position itself
+     *         while its gap may still be filled
+     */
+    private long settledGapsThrough(Projection projection, long position, DomainEvent batchEnd) {
+        String name = projection.getName();
+        GapSighting seen = openGaps.get(name);
+        if (seen == null || position >= seen.through()) {
+            openGaps.put(name, new GapSighting(batchEnd.getGlobalPosition(),
+                queryXid("pg_snapshot_xmax"), System.nanoTime(), false));
+            return position;
+        }
+        if (queryXid("pg_snapshot_xmin") >= seen.xmax()) {
+            openGaps.remove(name, seen);
+            return seen.through();
+        }
+        if (!seen.warned()
+                && System.nanoTime() - seen.firstSeenNanos() >= TimeUnit.MILLISECONDS.toNanos(gapWarnMs)) {
+            log.warn("Projection {} has waited {} ms on a gap after position {}; a writing transaction is "
+                + "still open", name, gapWarnMs, position);
+            openGaps.replace(name, seen, new GapSighting(seen.through(), seen.xmax(), seen.firstSeenNanos(), true));
+        }
+        return position;
+    }
+
+    private long queryXid(String snapshotFunction) {
+        return jdbcTemplate.queryForObject(
+            "SELECT " + snapshotFunction + "(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    /**
+     * Gaps in the stream up to a position, and the transactions that may still fill them
+     */
+    private record GapSighting(long through, long xmax, long firstSeenNanos, boolean warned) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.order.eventsourcing.service;
+
+import com.ecommerce.order.eventsourcing.model.AggregateRoot;
+
+/**
+ * Snapshot Serializer
+ * 
+ * Converts the state of one aggregate type to and from its snapshot form.
+ * Register one bean per aggregate type to enable snapshots for that type;
+ * aggregate types without a serializer are always loaded by full replay.
+ * 
+ * Only the aggregate's own state is serialized. ID and version are stored
+ * with the snapshot and restored by EventStoreService.
+ * 
+ * @param <T> The aggregate type
+ */
+public interface SnapshotSerializer<T extends AggregateRoot> {
+
+    /**
+     * Aggregate type handled by this serializer (matches AggregateRoot.getAggregateType)
+     */
+    String getAggregateType();
+
+    /**
+     * Serialize the current state of the aggregate
+     */
+    String serialize(T aggregate);
+
+    /**
+     * Restore state into a freshly created aggregate
+     */
+    void restore(T aggregate, String state);
+}
@@ -1,7 +1,7 @@
 package com.ecommerce.order.health;
 
 import com.ecommerce.order.metrics.OrderMetrics;
-import com.ecommerce.order.outbox.OutboxPoller;
+import com.ecommerce.shared.outbox.OutboxPoller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.actuate.health.Health;
@@ -1,20 +1,28 @@
 package com.ecommerce.order.health;
 
 import com.ecommerce.order.metrics.OrderMetrics;
-import com.ecommerce.order.outbox.OutboxPoller;
+import com.ecommerce.shared.outbox.OutboxPoller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Custom health indicator for the Outbox Pattern.
  * 
  * Monitors the health of the outbox event processing:
- * - Number of unprocessed events
- * - Number of stuck events (long processing time)
- * - Retry queue depth
+ * - Age of the oldest unprocessed event (publishing lag)
+ * - Number of events that used up their retries (dead-lettered, or still
+ *   failing past max retries)
+ * 
+ * Events failing on their first attempts (e.g. a broker blip failing one
+ * batch) are only reported, never a reason for DOWN; a lasting outage shows
+ * up through the oldest unprocessed age instead.
+ * 
+ * All values are kept in memory by the poller, so probes run no queries.
  */
 @Slf4j
 @Component
@@ -25,34 +33,36 @@ public class OutboxHealthIndicator implements HealthIndicator {
     private final OrderMetrics orderMetrics;
     
     // Thresholds for health determination
-    private static final int WARNING_THRESHOLD = 100;  // Unprocessed events
-    private static final int CRITICAL_THRESHOLD = 1000; // Unprocessed events
-    private static final int FAILED_THRESHOLD = 50;    // Failed events
+    private static final Duration WARNING_THRESHOLD = Duration.ofSeconds(30); // Oldest unprocessed event
+    private static final Duration CRITICAL_THRESHOLD = Duration.ofMinutes(5); // Oldest unprocessed event
+    private static final int EXHAUSTED_THRESHOLD = 50;                        // Events past max retries
     
     @Override
     public Health health() {
         try {
             OutboxPoller.OutboxMetrics metrics = outboxPoller.getMetrics();
             
-            long unprocessed = metrics.unprocessedCount();
-            long failed = metrics.failedCount();
+            Duration oldestAge = metrics.oldestUnprocessedAge();
+            long failing = metrics.failingCount();
+            long exhausted = metrics.exhaustedCount();
             
             Health.Builder builder;
             
             // Determine health status based on thresholds
-            if (unprocessed > CRITICAL_THRESHOLD || failed > FAILED_THRESHOLD) {
+            if (oldestAge.compareTo(CRITICAL_THRESHOLD) > 0 || exhausted > EXHAUSTED_THRESHOLD) {
                 builder = Health.down();
-            } else if (unprocessed > WARNING_THRESHOLD) {
+            } else if (oldestAge.compareTo(WARNING_THRESHOLD) > 0) {
                 builder = Health.status("WARNING");
             } else {
                 builder = Health.up();
             }
             
             return builder
-                .withDetail("unprocessed_events", unprocessed)
-                .withDetail("failed_events", failed)
-                .withDetail("warning_threshold", WARNING_THRESHOLD)
-                .withDetail("critical_threshold", CRITICAL_THRESHOLD)
+                .withDetail("oldest_unprocessed_age_ms", oldestAge.toMillis())
+                .withDetail("failing_events", failing)
+                .withDetail("exhausted_events", exhausted)
+                .withDetail("warning_threshold_ms", WARNING_THRESHOLD.toMillis())
+                .withDetail("critical_threshold_ms", CRITICAL_THRESHOLD.toMillis())
                 .build();
             
         } catch (Exception e) {
@@ -0,0 +1,158 @@
+package com.ecommerce.order.metrics;
+
+import com.ecommerce.order.config.VirtualThreadTaskExecutor;
+import com.ecommerce.order.saga.SagaCommandGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saga execution metrics.
+ * 
+ * Latency is broken down by saga type and step, so the step that dominates a
+ * saga (e.g. checkout) shows up directly:
+ * - saga.duration{saga_type, outcome}: start to completion or compensation
+ * - saga.step.duration{saga_type, step, outcome}: first attempt to success or final failure, retries included
+ * - saga.step.retries{saga_type, step}: attempts after the first
+ * - saga.compensations{saga_type, step, outcome}: compensations run
+ * 
+ * Saturation:
+ * - saga.in_flight: sagas running on this instance
+ * - saga.replies.pending: steps parked awaiting a command reply
+ * - saga.executor.queue.depth / saga.executor.active: tasks waiting for and
+ *   running on the sagaExecutor (with virtual threads: waiting for a
+ *   concurrency permit, and running)
+ * 
+ * The step tag is SagaStep.getMetricName(), the step kind rather than its
+ * unique name (every line item's reservation is tagged ReserveInventory), so
+ * the number of series stays bounded however large the orders get.
+ */
+@Slf4j
+@Component
+public class SagaMetrics implements MeterBinder {
+    
+    private final Executor sagaExecutor;
+    private final SagaCommandGateway sagaCommandGateway;
+    
+    private MeterRegistry meterRegistry;
+    
+    // Saturation metrics (gauges)
+    private final AtomicInteger sagasInFlight = new AtomicInteger(0);
+    
+    public SagaMetrics(@Qualifier("sagaExecutor") Executor sagaExecutor, SagaCommandGateway sagaCommandGateway) {
+        this.sagaExecutor = sagaExecutor;
+        this.sagaCommandGateway = sagaCommandGateway;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        
+        Gauge.builder("saga.in_flight", sagasInFlight, AtomicInteger::get)
+            .description("Number of sagas currently running on this instance")
+            .register(registry);
+        
+        Gauge.builder("saga.replies.pending", sagaCommandGateway, SagaCommandGateway::getPendingReplyCount)
+            .description("Saga steps parked until a command reply arrives")
+            .register(registry);
+        
+        if (sagaExecutor instanceof ThreadPoolTaskExecutor taskExecutor) {
+            Gauge.builder("saga.executor.queue.depth", taskExecutor, SagaMetrics::queueDepth)
+                .description("Saga tasks waiting for an executor thread")
+                .register(registry);
+        
+            Gauge.builder("saga.executor.active", taskExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Saga executor threads running a task")
+                .register(registry);
+        } else if (sagaExecutor instanceof VirtualThreadTaskExecutor virtualExecutor) {
+            Gauge.builder("saga.executor.queue.depth", virtualExecutor, VirtualThreadTaskExecutor::getQueuedCount)
+                .description("Saga tasks waiting for a concurrency permit")
+                .register(registry);
+        
+            Gauge.builder("saga.executor.active", virtualExecutor, VirtualThreadTaskExecutor::getActiveCount)
+                .description("Saga tasks running on virtual threads")
+                .register(registry);
+        } else {
+            log.info("sagaExecutor is a {}; not reporting its queue depth",
+                sagaExecutor.getClass().getSimpleName());
+        }
+    }
+    
+    private static double queueDepth(ThreadPoolTaskExecutor taskExecutor) {
+        ThreadPoolExecutor pool = taskExecutor.getThreadPoolExecutor();
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+    
+    // Latency recording methods
+    
+    public void recordSagaDuration(String sagaType, String outcome, Duration duration) {
+        if (meterRegistry != null) {
+            Timer.builder("saga.duration")
+                .description("Time from saga start to completion or compensation")
+                .tag("saga_type", sagaType)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(duration);
+        }
+    }
+    
+    public void recordStepDuration(String sagaType, String step, String outcome, Duration duration) {
+        if (meterRegistry != null) {
+            Timer.builder("saga.step.duration")
+                .description("Time taken by a saga step, retries included")
+                .tag("saga_type", sagaType)
+                .tag("step", step)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(duration);
+        }
+    }
+    
+    // Error recording methods
+    
+    public void recordStepRetries(String sagaType, String step, int retries) {
+        if (meterRegistry != null && retries > 0) {
+            Counter.builder("saga.step.retries")
+                .description("Saga step attempts after the first")
+                .tag("saga_type", sagaType)
+                .tag("step", step)
+                .register(meterRegistry)
+                .increment(retries);
+        }
+    }
+    
+    public void recordCompensation(String sagaType, String step, boolean succeeded) {
+        if (meterRegistry != null) {
+            Counter.builder("saga.compensations")
+                .description("Saga step compensations run")
+                .tag("saga_type", sagaType)
+                .tag("step", step)
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+    
+    // Saturation update methods
+    
+    public void incrementSagasInFlight() {
+        sagasInFlight.incrementAndGet();
+    }
+    
+    public void decrementSagasInFlight() {
+        sagasInFlight.decrementAndGet();
+    }
+}
@@ -1,11 +1,18 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +23,29 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     Page<Order> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
     Optional<Order> findByIdAndUserId(UUID id, UUID userId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(UUID id);
+
+    /**
+     * Id and status of those of the given orders that have left the given status
+     * One primary-key lookup for a whole batch of orders, e.g. the parked OrderPayment sagas.
+     */
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids AND o.status <> :status")
+    List<OrderStatusView> findStatusesOtherThan(@Param("ids") Collection<UUID> ids,
+                                                @Param("status") OrderStatus status);
+
+    /**
+     * Move an order to a new status only if it is still in the expected one
+     * A single conditional UPDATE, so concurrent writers on any instance cannot both win.
+     *
+     * @return 1 if the order moved, 0 if it was missing or had left the expected status
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt " +
+           "WHERE o.id = :id AND o.status = :expected")
+    int updateStatusIfCurrent(@Param("id") UUID id,
+                              @Param("expected") OrderStatus expected,
+                              @Param("status") OrderStatus status,
+                              @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * Narrow projection of an order: its id and status only, without items or amounts.
+ */
+public interface OrderStatusView {
+
+    UUID getId();
+
+    OrderStatus getStatus();
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderItemEvent;
+import com.ecommerce.order.exception.OrderNotFoundException;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderStatusView;
+import com.ecommerce.order.saga.SagaCommandGateway.RecordedReply;
+import com.ecommerce.order.saga.SagaCommandGateway.ReplyLookup;
+import com.ecommerce.order.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Order Payment Saga
+ *
+ * Orchestrated counterpart of the choreographed checkout: the saga sends the
+ * OrderCreated command to order-events through SagaCommandGateway and parks
+ * until payment-service answers on payment-events (PaymentEventListener
+ * correlates the reply by order id). No thread waits for the payment.
+ * The reply may be consumed by another instance; the parked step then picks
+ * the result up from the order row (see SagaCommandGateway.ReplyLookup).
+ *
+ * 1. RequestPayment - command OrderCreated, reply PaymentProcessed
+ *    (compensate: cancel the order if it is still unpaid; payment-service has
+ *    no refund command yet)
+ *
+ * The order row is the durable outcome: PaymentEventListener moves a CREATED
+ * order to PAID or, for a declined payment, CANCELLED before resuming the
+ * step, so a rejected command needs no compensation. All status changes are
+ * conditional on the order still being CREATED; a reply after the saga gave
+ * up cannot flip a cancelled order back to PAID.
+ *
+ * Payload: the order id. Started by OrderService.createOrder when
+ * saga.checkout.mode=orchestrated, which then does not publish OrderCreated
+ * itself (the order would be charged twice).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPaymentSagaDefinition implements SagaDefinition {
+
+    public static final String SAGA_TYPE = "OrderPayment";
+
+    private static final String PAYMENT_REPLY_PREFIX = "payment:";
+
+    private final SagaCommandGateway commandGateway;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+
+    // Shared by every order's step, so the gateway checks all parked payments in one query
+    private final ReplyLookup recordedPayments = this::recordedPayments;
+
+    // Must stay below saga.recovery.stale-after-ms, or a parked saga looks orphaned
+    @Value("${saga.order-payment.timeout-ms:120000}")
+    private long timeoutMs;
+
+    /**
+     * Correlation id of the payment reply for an order
+     */
+    public static String paymentReplyId(UUID orderId) {
+        return PAYMENT_REPLY_PREFIX + orderId;
+    }
+
+    @Override
+    public String getSagaType() {
+        return SAGA_TYPE;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public List<SagaStep> createSteps(String payload) {
+        UUID orderId = UUID.fromString(payload);
+
+        return List.of(
+            SagaStep.builder()
+                .name("RequestPayment")
+                .description("Send OrderCreated to payment-service and await its reply")
+                .asyncAction(commandGateway.command("Order", payload, "OrderCreated",
+                    () -> buildPaymentCommand(orderId), paymentReplyId(orderId),
+                    recordedPayments))
+                .compensation(() -> cancelUnpaidOrder(orderId))
+                .maxRetries(0) // A resent command would charge again
+                .build()
+        );
+    }
+
+    /**
+     * Payment results recorded on the order rows by PaymentEventListener on any instance
+     * Orders still CREATED have no result yet; missing orders are left to the step deadline.
+     */
+    private Map<String, RecordedReply> recordedPayments(Collection<String> replyIds) {
+        List<UUID> orderIds = replyIds.stream()
+            .map(replyId -> UUID.fromString(replyId.substring(PAYMENT_REPLY_PREFIX.length())))
+            .toList();
+
+        Map<String, RecordedReply> replies = new HashMap<>();
+        for (OrderStatusView order : orderRepository.findStatusesOtherThan(orderIds, OrderStatus.CREATED)) {
+            replies.put(paymentReplyId(order.getId()), order.getStatus() == OrderStatus.CANCELLED
+                ? RecordedReply.rejected("order was cancelled")
+                : RecordedReply.completed(order.getStatus()));
+        }
+        return replies;
+    }
+
+    /**
+     * Cancel an order the saga gave up on, unless its payment already went through
+     */
+    private void cancelUnpaidOrder(UUID orderId) {
+        if (!orderService.transitionOrderStatus(orderId, OrderStatus.CREATED, OrderStatus.CANCELLED)) {
+            log.warn("Order {} was no longer awaiting payment when its saga gave up; left as is", orderId);
+        }
+    }
+
+    private OrderCreatedEvent buildPaymentCommand(UUID orderId) {
+        Order order = orderRepository.findWithItemsById(orderId)
+            .orElseThrow(() -> OrderNotFoundException.withId(orderId.toString()));
+
+        return OrderCreatedEvent.builder()
+            .orderId(order.getId())
+            .userId(order.getUserId())
+            .userEmail(order.getUserEmail())
+            .totalAmount(order.getTotalAmount())
+            .items(order.getItems().stream()
+                .map(item -> OrderItemEvent.builder()
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .price(item.getPrice())
+                    .build())
+                .toList())
+            .build();
+    }
+}
@@ -0,0 +1,244 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.shared.outbox.OutboxEventPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Saga Command Gateway
+ *
+ * Command/reply steps for sagas whose work happens in another service. The
+ * step's asyncAction stores a command message in the outbox and returns a
+ * future that the correlated reply completes. Until the reply arrives the saga
+ * is parked as an entry in a map and holds no thread, so the number of
+ * in-flight sagas is bounded by memory rather than by the sagaExecutor pool.
+ *
+ * Correlation:
+ * Every command is paired with a correlation id that its reply can be matched
+ * on, e.g. "payment:" + orderId since payment-events replies carry the order
+ * id. The reply future is registered before the command is stored, so even an
+ * immediate reply finds it. Kafka listeners hand replies to completeReply or
+ * failReply; a reply no step is waiting for returns false.
+ *
+ * Replies in a shared consumer group land on any instance, not necessarily the
+ * one the saga is parked on. Listeners therefore first record each reply in
+ * durable state (e.g. the order row), and a command sent with a ReplyLookup is
+ * also resolved from that state, so a reply received elsewhere (or while this
+ * instance was restarting its consumer) still releases the step:
+ * - every saga.replies.check-interval-ms, on the gateway's own thread rather
+ *   than the shared @Scheduled one the outbox poller runs on
+ * - only steps parked longer than saga.replies.check-grace-ms; younger ones
+ *   are usually released by delivery
+ * - one findAll call per ReplyLookup for up to saga.replies.check-batch-size
+ *   steps, so the cost is a query per batch rather than per parked saga
+ *
+ * A parked step is released by its reply or by its deadline, which cancels the
+ * future. Only one step may wait on a correlation id at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaCommandGateway {
+
+    private final OutboxEventPublisher outboxPublisher;
+
+    // Steps parked until their reply arrives
+    private final Map<String, PendingReply> pendingReplies = new ConcurrentHashMap<>();
+
+    @Value("${saga.replies.check-interval-ms:5000}")
+    private long checkIntervalMs;
+
+    @Value("${saga.replies.check-grace-ms:10000}")
+    private long checkGraceMs;
+
+    @Value("${saga.replies.check-batch-size:500}")
+    private int checkBatchSize;
+
+    private ScheduledExecutorService replyCheckScheduler;
+
+    /**
+     * Start checking recorded replies
+     * Kept private rather than a bean so it is never picked up for @Scheduled tasks.
+     */
+    @PostConstruct
+    void startReplyChecks() {
+        replyCheckScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "saga-reply-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replyCheckScheduler.scheduleWithFixedDelay(this::checkRecordedReplies,
+            checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopReplyChecks() {
+        replyCheckScheduler.shutdownNow();
+    }
+
+    /**
+     * An asyncAction that sends a command and completes with its reply
+     *
+     * @param aggregateType Outbox aggregate type, which selects the topic ("Order" -> order-events)
+     * @param aggregateId Record key of the command
+     * @param eventType Event type header of the command
+     * @param command Builds the command payload, once per attempt
+     * @param correlationId Id the reply will be delivered under
+     */
+    public Supplier<CompletionStage<Object>> command(String aggregateType, String aggregateId, String eventType,
+                                                     Supplier<?> command, String correlationId) {
+        return command(aggregateType, aggregateId, eventType, command, correlationId, null);
+    }
+
+    /**
+     * An asyncAction that sends a command and completes with its reply, delivered
+     * to this instance or found by recordedReply
+     *
+     * @param recordedReply Looks the reply up in durable state, null to wait for delivery only;
+     *                      one shared instance per kind of reply, so lookups can be batched
+     */
+    public Supplier<CompletionStage<Object>> command(String aggregateType, String aggregateId, String eventType,
+                                                     Supplier<?> command, String correlationId,
+                                                     ReplyLookup recordedReply) {
+        return () -> {
+            CompletableFuture<Object> reply = new CompletableFuture<>();
+            PendingReply pending = new PendingReply(reply, recordedReply, System.nanoTime());
+            if (pendingReplies.putIfAbsent(correlationId, pending) != null) {
+                return CompletableFuture.failedFuture(
+                    new IllegalStateException("A saga step is already waiting for reply " + correlationId));
+            }
+            // Released on reply, failure or cancellation by the step's deadline
+            reply.whenComplete((result, error) -> pendingReplies.remove(correlationId, pending));
+
+            try {
+                outboxPublisher.publish(aggregateType, aggregateId, eventType, command.get());
+                log.debug("Sent saga command {} for {}, awaiting reply {}", eventType, aggregateId, correlationId);
+            } catch (RuntimeException e) {
+                reply.completeExceptionally(e);
+            }
+            return reply;
+        };
+    }
+
+    /**
+     * Deliver a successful reply
+     *
+     * @return false if no step is waiting for it
+     */
+    public boolean completeReply(String correlationId, Object reply) {
+        PendingReply pending = pendingReplies.get(correlationId);
+        return pending != null && pending.future().complete(reply);
+    }
+
+    /**
+     * Deliver a reply that rejects the command, failing the waiting step
+     *
+     * @return false if no step is waiting for it
+     */
+    public boolean failReply(String correlationId, String reason) {
+        PendingReply pending = pendingReplies.get(correlationId);
+        return pending != null
+            && pending.future().completeExceptionally(new CommandRejectedException(correlationId, reason));
+    }
+
+    /**
+     * Release parked steps whose reply was recorded durably, e.g. by another instance
+     */
+    void checkRecordedReplies() {
+        long parkedBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(checkGraceMs);
+        Map<ReplyLookup, List<String>> due = new IdentityHashMap<>();
+        pendingReplies.forEach((correlationId, pending) -> {
+            if (pending.recordedReply() != null && !pending.future().isDone()
+                    && pending.parkedAtNanos() - parkedBefore <= 0) {
+                due.computeIfAbsent(pending.recordedReply(), lookup -> new ArrayList<>()).add(correlationId);
+            }
+        });
+
+        due.forEach((lookup, correlationIds) -> {
+            for (int from = 0; from < correlationIds.size(); from += checkBatchSize) {
+                List<String> chunk = correlationIds.subList(from, Math.min(from + checkBatchSize, correlationIds.size()));
+                try {
+                    lookup.findAll(chunk).forEach(this::releaseRecorded);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to look up {} recorded replies; retrying: {}", chunk.size(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void releaseRecorded(String correlationId, RecordedReply recorded) {
+        PendingReply pending = pendingReplies.get(correlationId);
+        if (pending == null) {
+            return;
+        }
+        boolean released = recorded.rejectionReason() == null
+            ? pending.future().complete(recorded.reply())
+            : pending.future().completeExceptionally(
+                new CommandRejectedException(correlationId, recorded.rejectionReason()));
+        if (released) {
+            log.info("Reply {} found in recorded state", correlationId);
+        }
+    }
+
+    /**
+     * Number of steps parked awaiting a reply
+     */
+    public int getPendingReplyCount() {
+        return pendingReplies.size();
+    }
+
+    /**
+     * Looks up replies in durable state, for many parked steps at once
+     */
+    @FunctionalInterface
+    public interface ReplyLookup {
+
+        /**
+         * The recorded replies by correlation id; ids without a reply yet are left out
+         */
+        Map<String, RecordedReply> findAll(Collection<String> correlationIds);
+    }
+
+    /**
+     * A reply found in durable state: the reply, or the reason it rejected the command
+     */
+    public record RecordedReply(Object reply, String rejectionReason) {
+
+        public static RecordedReply completed(Object reply) {
+            return new RecordedReply(reply, null);
+        }
+
+        public static RecordedReply rejected(String reason) {
+            return new RecordedReply(null, reason);
+        }
+    }
+
+    private record PendingReply(CompletableFuture<Object> future, ReplyLookup recordedReply, long parkedAtNanos) {
+    }
+
+    /**
+     * The receiving service answered the command with a failure
+     */
+    public static class CommandRejectedException extends RuntimeException {
+        public CommandRejectedException(String correlationId, String reason) {
+            super("Command " + correlationId + " was rejected: " + reason);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.order.saga;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Saga Definition
+ *
+ * Builds the steps of one saga type from its payload. Sagas started through a
+ * definition (SagaOrchestrator.startSaga) can be rebuilt from the saga log and
+ * recovered after a restart; sagas created from ad-hoc steps cannot.
+ *
+ * Steps must come out in the same order for the same payload, since the log
+ * refers to them by index.
+ */
+public interface SagaDefinition {
+
+    /**
+     * Saga type this definition builds, e.g. "OrderProcessing"
+     */
+    String getSagaType();
+
+    /**
+     * Create the steps of a saga
+     *
+     * @param payload Saga input as stored in the log (typically JSON), may be null
+     */
+    List<SagaStep> createSteps(String payload);
+
+    /**
+     * Overall time budget of a saga of this type, counted from its start
+     *
+     * @return null to use saga.timeout-ms
+     */
+    default Duration getTimeout() {
+        return null;
+    }
+}
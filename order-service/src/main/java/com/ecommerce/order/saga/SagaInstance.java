@@ -1,13 +1,23 @@
 package com.ecommerce.order.saga;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Saga Orchestrator for Distributed Transactions
@@ -33,6 +43,27 @@ import java.util.UUID;
  * - No distributed locks (better performance)
  * - Isolates failures
  * - Supports long-running operations
+ * 
+ * Step Graph:
+ * Steps may declare dependencies (SagaStep.dependsOn) and then form a DAG:
+ * executeAsync starts every step whose dependencies have completed, so
+ * independent branches (e.g. one inventory reservation per line item) run
+ * concurrently and the saga takes as long as its critical path. A failure stops
+ * new steps from starting; once the running ones settle, completed steps are
+ * compensated in reverse completion order, which is a reverse topological order.
+ * Without declared dependencies the steps form a chain in list order.
+ * 
+ * Deadline:
+ * A saga may have a deadline (its overall time budget). Every step must finish
+ * before it, or before its own timeout if that is sooner. Once it passes, no
+ * further steps start, running steps are cancelled (executeAsync) and the saga
+ * is compensated, including timed-out steps whose outcome is unknown.
+ * executeNextStep can only check the deadline between steps and attempts.
+ * 
+ * Durability:
+ * Every state change is reported as a SagaTransition to the transition
+ * listener (the SagaLog, when run by SagaOrchestrator). restore() rebuilds an
+ * instance from those transitions after a restart.
  */
 @Getter
 @Setter
@@ -47,6 +78,50 @@ public class SagaInstance {
     private final Instant createdAt;
     private Instant updatedAt;
     private String failureReason;
+    private final String payload;
+    private Consumer<SagaTransition> transitionListener = transition -> { };
+    private int logSequence;
+    private Instant deadline;
+    
+    // dependencies[i] = indexes of the steps step i waits for
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final int[][] dependencies;
+    
+    // Indexes of completed (or timed-out) steps in completion order
+    @Setter(AccessLevel.NONE)
+    private final List<Integer> completionOrder = new ArrayList<>();
+    
+    // Completion as recorded by this saga; a step's own status may run ahead of it
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final boolean[] completed;
+    
+    // Asynchronous execution state, guarded by lock. A ReentrantLock rather than
+    // synchronized: transitions are logged while it is held, and blocking inside a
+    // monitor would pin the carrier of a virtual thread.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ReentrantLock lock = new ReentrantLock();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int stepsInFlight;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean halted;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean abandoned;
+    // Set by executeAsync, so cancel can drive the saga the same way
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Executor asyncExecutor;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ScheduledExecutorService asyncScheduler;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CompletableFuture<Void> asyncDone;
     
     public enum SagaStatus {
         STARTED,        // Saga initiated
@@ -58,49 +133,377 @@ public class SagaInstance {
     }
     
     public SagaInstance(String sagaType, List<SagaStep> steps) {
-        this.sagaId = UUID.randomUUID();
+        this(sagaType, steps, null);
+    }
+    
+    /**
+     * Create a saga with the payload its steps were built from
+     */
+    public SagaInstance(String sagaType, List<SagaStep> steps, String payload) {
+        this(UUID.randomUUID(), sagaType, steps, payload, Instant.now());
+    }
+    
+    private SagaInstance(UUID sagaId, String sagaType, List<SagaStep> steps, String payload, Instant createdAt) {
+        this.sagaId = sagaId;
         this.sagaType = sagaType;
         this.steps = new ArrayList<>(steps);
+        this.dependencies = resolveDependencies(this.steps);
+        this.completed = new boolean[this.steps.size()];
+        this.payload = payload;
         this.status = SagaStatus.STARTED;
         this.currentStepIndex = 0;
-        this.createdAt = Instant.now();
+        this.createdAt = createdAt;
         this.updatedAt = Instant.now();
     }
     
+    /**
+     * Rebuild a saga from its logged transitions
+     * 
+     * @param history The saga's transitions in sequence order, starting with SAGA_STARTED
+     * @param steps Steps rebuilt from the saga's definition and payload
+     */
+    public static SagaInstance restore(List<SagaTransition> history, List<SagaStep> steps) {
+        SagaTransition started = history.get(0);
+        SagaInstance saga = new SagaInstance(
+            started.sagaId(), started.sagaType(), steps, started.detail(), started.recordedAt());
+        
+        for (SagaTransition transition : history) {
+            Integer index = transition.stepIndex();
+            switch (transition.type()) {
+                case STEP_COMPLETED -> {
+                    saga.steps.get(index).setStatus(SagaStep.StepStatus.COMPLETED);
+                    saga.completed[index] = true;
+                    saga.completionOrder.add(index);
+                    saga.currentStepIndex = saga.completionOrder.size();
+                    saga.status = SagaStatus.IN_PROGRESS;
+                }
+                case STEP_FAILED -> {
+                    saga.steps.get(index).setStatus(SagaStep.StepStatus.FAILED);
+                    saga.steps.get(index).setErrorMessage(transition.detail());
+                    saga.failureReason = transition.detail();
+                    saga.halted = true;
+                }
+                case STEP_TIMED_OUT -> {
+                    saga.steps.get(index).setStatus(SagaStep.StepStatus.TIMED_OUT);
+                    saga.steps.get(index).setErrorMessage(transition.detail());
+                    saga.completionOrder.add(index);
+                    saga.failureReason = transition.detail();
+                    saga.halted = true;
+                }
+                case COMPENSATION_STARTED -> saga.status = SagaStatus.COMPENSATING;
+                case STEP_COMPENSATED -> saga.steps.get(index).setStatus(SagaStep.StepStatus.COMPENSATED);
+                case STEP_COMPENSATION_FAILED ->
+                    saga.steps.get(index).setStatus(SagaStep.StepStatus.COMPENSATION_FAILED);
+                default -> { }
+            }
+            saga.updatedAt = transition.recordedAt();
+        }
+        saga.logSequence = history.get(history.size() - 1).sequence() + 1;
+        return saga;
+    }
+    
+    /**
+     * Log the start of the saga, with its payload
+     */
+    public void recordStarted() {
+        record(SagaTransition.Type.SAGA_STARTED, null, payload);
+    }
+    
+    /**
+     * Log that this instance has taken over the saga after a restart
+     */
+    public void recordRecoveryStarted() {
+        record(SagaTransition.Type.RECOVERY_STARTED, null, null);
+    }
+    
     /**
      * Execute the next step in the saga
+     * With a step graph, this is the first step whose dependencies have completed.
      */
     public boolean executeNextStep() {
-        if (currentStepIndex >= steps.size()) {
-            status = SagaStatus.COMPLETED;
-            updatedAt = Instant.now();
-            log.info("Saga {} completed successfully", sagaId);
+        if (isHalted()) {
+            // Cancelled between steps
+            startCompensation();
+            return false;
+        }
+        if (allStepsCompleted()) {
+            complete();
+            return false;
+        }
+        if (isPastDeadline()) {
+            failureReason = deadlineExceededReason();
+            startCompensation();
             return false;
         }
         
-        SagaStep currentStep = steps.get(currentStepIndex);
+        int index = readySteps().get(0);
+        SagaStep currentStep = steps.get(index);
         status = SagaStatus.IN_PROGRESS;
         
         try {
             log.info("Executing saga step {}/{}: {}", 
-                currentStepIndex + 1, steps.size(), currentStep.getName());
+                completionOrder.size() + 1, steps.size(), currentStep.getName());
             
-            currentStep.execute();
-            currentStep.setStatus(SagaStep.StepStatus.COMPLETED);
-            currentStepIndex++;
-            updatedAt = Instant.now();
-            
-            return true;
+            currentStep.execute(deadline);
+        } catch (SagaStep.StepTimeoutException e) {
+            onStepTimedOut(index, e);
+            startCompensation();
+            return false;
         } catch (Exception e) {
-            log.error("Saga step {} failed: {}", currentStep.getName(), e.getMessage());
-            currentStep.setStatus(SagaStep.StepStatus.FAILED);
-            currentStep.setErrorMessage(e.getMessage());
-            failureReason = e.getMessage();
+            onStepFailed(index, e);
             
             // Start compensation
             startCompensation();
             return false;
         }
+        
+        onStepCompleted(index);
+        return true;
+    }
+    
+    /**
+     * Execute the saga without blocking the calling thread
+     * 
+     * Starts every step whose dependencies have completed, and the steps that
+     * become ready as each one completes. Compensation after a failure runs on
+     * the executor.
+     * 
+     * @return Completes when the saga is complete, or exceptionally if the saga
+     *         had to be abandoned (e.g. its log ownership was lost)
+     */
+    public CompletableFuture<Void> executeAsync(Executor executor, ScheduledExecutorService scheduler) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        lock.lock();
+        try {
+            asyncExecutor = executor;
+            asyncScheduler = scheduler;
+            asyncDone = done;
+            status = SagaStatus.IN_PROGRESS;
+            advance(executor, scheduler, done);
+        } catch (RuntimeException e) {
+            abandon(done, e);
+        } finally {
+            lock.unlock();
+        }
+        return done;
+    }
+    
+    /**
+     * Cancel the saga: start no more steps and compensate the completed ones
+     * 
+     * Steps already running are not interrupted. Compensation starts once the
+     * last of them has finished, from the same place a failed step would start
+     * it, so it runs once and is logged in sequence. A saga run step by step
+     * with executeNextStep compensates before its next step.
+     * 
+     * @return false if the saga has already finished or is already stopping
+     */
+    public boolean cancel(String reason) {
+        lock.lock();
+        try {
+            if (halted || abandoned || isComplete() || status == SagaStatus.COMPENSATING) {
+                return false;
+            }
+            halted = true;
+            failureReason = reason;
+            if (asyncDone != null) {
+                advance(asyncExecutor, asyncScheduler, asyncDone);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            abandon(asyncDone, e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean isHalted() {
+        lock.lock();
+        try {
+            return halted;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Start ready steps, or finish the saga; caller holds the lock
+     */
+    private void advance(Executor executor, ScheduledExecutorService scheduler, CompletableFuture<Void> done) {
+        if (abandoned) {
+            return;
+        }
+        if (!halted && !allStepsCompleted() && isPastDeadline()) {
+            // Steps still running time out at the deadline too
+            halted = true;
+            failureReason = deadlineExceededReason();
+            log.warn("Saga {} exceeded its deadline {}", sagaId, deadline);
+        }
+        if (halted) {
+            if (stepsInFlight == 0) {
+                executor.execute(() -> {
+                    try {
+                        startCompensation();
+                        done.complete(null);
+                    } catch (RuntimeException e) {
+                        done.completeExceptionally(e);
+                    }
+                });
+            }
+            return;
+        }
+        if (allStepsCompleted()) {
+            complete();
+            done.complete(null);
+            return;
+        }
+        
+        for (int index : readySteps()) {
+            SagaStep step = steps.get(index);
+            stepsInFlight++;
+            log.info("Starting saga step {}: {}", index + 1, step.getName());
+            step.executeAsync(executor, scheduler, deadline).whenComplete((ignored, error) -> {
+                // Logging may block; keep it off the thread that completed the step
+                Runnable handler = () -> onAsyncStepDone(index, error, executor, scheduler, done);
+                try {
+                    executor.execute(handler);
+                } catch (RuntimeException rejected) {
+                    handler.run();
+                }
+            });
+        }
+    }
+    
+    private void onAsyncStepDone(int index, Throwable error, Executor executor,
+                                 ScheduledExecutorService scheduler, CompletableFuture<Void> done) {
+        lock.lock();
+        try {
+            stepsInFlight--;
+            if (abandoned) {
+                return;
+            }
+            if (error == null) {
+                onStepCompleted(index);
+            } else if (error instanceof SagaStep.StepTimeoutException) {
+                onStepTimedOut(index, error);
+                halted = true;
+            } else {
+                onStepFailed(index, error);
+                halted = true;
+            }
+            advance(executor, scheduler, done);
+        } catch (RuntimeException e) {
+            abandon(done, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Stop driving the saga: no more steps or compensations from this instance
+     */
+    private void abandon(CompletableFuture<Void> done, RuntimeException cause) {
+        abandoned = true;
+        log.warn("Abandoning saga {}: {}", sagaId, cause.getMessage());
+        done.completeExceptionally(cause);
+    }
+    
+    private void complete() {
+        status = SagaStatus.COMPLETED;
+        updatedAt = Instant.now();
+        record(SagaTransition.Type.SAGA_COMPLETED, null, null);
+        log.info("Saga {} completed successfully", sagaId);
+    }
+    
+    private void onStepCompleted(int index) {
+        steps.get(index).setStatus(SagaStep.StepStatus.COMPLETED);
+        record(SagaTransition.Type.STEP_COMPLETED, index, null);
+        completed[index] = true;
+        completionOrder.add(index);
+        currentStepIndex = completionOrder.size();
+        updatedAt = Instant.now();
+    }
+    
+    private void onStepFailed(int index, Throwable error) {
+        SagaStep step = steps.get(index);
+        log.error("Saga step {} failed: {}", step.getName(), error.getMessage());
+        step.setStatus(SagaStep.StepStatus.FAILED);
+        step.setErrorMessage(error.getMessage());
+        failureReason = error.getMessage();
+        record(SagaTransition.Type.STEP_FAILED, index, error.getMessage());
+    }
+    
+    /**
+     * A timed-out step may have taken effect; it is compensated like a completed one
+     */
+    private void onStepTimedOut(int index, Throwable error) {
+        SagaStep step = steps.get(index);
+        log.error("Saga step {} timed out: {}", step.getName(), error.getMessage());
+        step.setStatus(SagaStep.StepStatus.TIMED_OUT);
+        step.setErrorMessage(error.getMessage());
+        failureReason = error.getMessage();
+        record(SagaTransition.Type.STEP_TIMED_OUT, index, error.getMessage());
+        completionOrder.add(index);
+        updatedAt = Instant.now();
+    }
+    
+    private boolean allStepsCompleted() {
+        for (boolean stepCompleted : completed) {
+            if (!stepCompleted) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isPastDeadline() {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+    
+    private String deadlineExceededReason() {
+        return "Saga deadline " + deadline + " exceeded";
+    }
+    
+    /**
+     * Steps that have not started and whose dependencies have all completed
+     */
+    private List<Integer> readySteps() {
+        List<Integer> ready = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getStatus() != SagaStep.StepStatus.PENDING) {
+                continue;
+            }
+            boolean dependenciesDone = true;
+            for (int dependency : dependencies[i]) {
+                dependenciesDone &= completed[dependency];
+            }
+            if (dependenciesDone) {
+                ready.add(i);
+            }
+        }
+        return ready;
+    }
+    
+    /**
+     * Steps a restart may have interrupted: those that were ready to run
+     */
+    public List<SagaStep> getInterruptedSteps() {
+        return readySteps().stream().map(steps::get).toList();
+    }
+    
+    /**
+     * Compensate after a restart interrupted the ready steps
+     * They may have taken effect, so they are compensated along with the completed ones.
+     */
+    public void compensateInterruptedSteps(String reason) {
+        for (int index : readySteps()) {
+            steps.get(index).setStatus(SagaStep.StepStatus.COMPLETED);
+            completed[index] = true;
+            completionOrder.add(index);
+        }
+        failureReason = reason;
+        startCompensation();
     }
     
     /**
@@ -108,12 +511,17 @@ public class SagaInstance {
      */
     public void startCompensation() {
         status = SagaStatus.COMPENSATING;
+        record(SagaTransition.Type.COMPENSATION_STARTED, null, failureReason);
         log.info("Starting compensation for saga {}", sagaId);
         
-        // Compensate in reverse order
-        for (int i = currentStepIndex - 1; i >= 0; i--) {
+        boolean compensationFailed = false;
+        
+        // Compensate in reverse completion order
+        for (int k = completionOrder.size() - 1; k >= 0; k--) {
+            int i = completionOrder.get(k);
             SagaStep step = steps.get(i);
-            if (step.getStatus() == SagaStep.StepStatus.COMPLETED) {
+            if (step.getStatus() == SagaStep.StepStatus.COMPLETED
+                    || step.getStatus() == SagaStep.StepStatus.TIMED_OUT) {
                 try {
                     log.info("Compensating step: {}", step.getName());
                     step.compensate();
@@ -122,24 +530,103 @@ public class SagaInstance {
                     log.error("Compensation failed for step {}: {}", 
                         step.getName(), e.getMessage());
                     step.setStatus(SagaStep.StepStatus.COMPENSATION_FAILED);
+                    record(SagaTransition.Type.STEP_COMPENSATION_FAILED, i, e.getMessage());
+                    compensationFailed = true;
                     // Log for manual intervention
+                    continue;
                 }
+                record(SagaTransition.Type.STEP_COMPENSATED, i, null);
             }
         }
         
-        status = status == SagaStatus.COMPENSATING ? SagaStatus.COMPENSATED : SagaStatus.FAILED;
+        status = compensationFailed ? SagaStatus.FAILED : SagaStatus.COMPENSATED;
         updatedAt = Instant.now();
+        record(compensationFailed ? SagaTransition.Type.SAGA_FAILED : SagaTransition.Type.SAGA_COMPENSATED,
+            null, failureReason);
         log.info("Saga {} compensation completed with status: {}", sagaId, status);
     }
     
     /**
-     * Get current step
+     * Report a transition to the listener under the next log sequence number
+     */
+    private void record(SagaTransition.Type type, Integer stepIndex, String detail) {
+        transitionListener.accept(new SagaTransition(
+            sagaId, logSequence, sagaType, type, stepIndex, detail, Instant.now()));
+        logSequence++;
+    }
+    
+    /**
+     * Get current step: the next one to run, null once all have completed
      */
     public SagaStep getCurrentStep() {
-        if (currentStepIndex < steps.size()) {
-            return steps.get(currentStepIndex);
+        List<Integer> ready = readySteps();
+        return ready.isEmpty() ? null : steps.get(ready.get(0));
+    }
+    
+    /**
+     * Resolve each step's dependencies to step indexes
+     * Steps without any declared dependencies are chained in list order.
+     * 
+     * @throws IllegalArgumentException for duplicate or unknown step names, or a cycle
+     */
+    private static int[][] resolveDependencies(List<SagaStep> steps) {
+        int[][] dependencies = new int[steps.size()][];
+        boolean graph = steps.stream().anyMatch(step -> !step.getDependsOn().isEmpty());
+        if (!graph) {
+            for (int i = 0; i < steps.size(); i++) {
+                dependencies[i] = i == 0 ? new int[0] : new int[] {i - 1};
+            }
+            return dependencies;
+        }
+        
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            if (indexByName.put(steps.get(i).getName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate saga step name: " + steps.get(i).getName());
+            }
+        }
+        int[] waitingOn = new int[steps.size()];
+        List<List<Integer>> dependents = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            SagaStep step = steps.get(i);
+            dependencies[i] = step.getDependsOn().stream().mapToInt(name -> {
+                Integer index = indexByName.get(name);
+                if (index == null) {
+                    throw new IllegalArgumentException(
+                        "Saga step " + step.getName() + " depends on unknown step " + name);
+                }
+                return index;
+            }).toArray();
+            waitingOn[i] = dependencies[i].length;
+            for (int dependency : dependencies[i]) {
+                dependents.get(dependency).add(i);
+            }
+        }
+        
+        // Kahn's algorithm: every step must become ready at some point
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < steps.size(); i++) {
+            if (waitingOn[i] == 0) {
+                ready.add(i);
+            }
+        }
+        int ordered = 0;
+        while (!ready.isEmpty()) {
+            int index = ready.poll();
+            ordered++;
+            for (int dependent : dependents.get(index)) {
+                if (--waitingOn[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered != steps.size()) {
+            throw new IllegalArgumentException("Saga steps have a dependency cycle");
         }
-        return null;
+        return dependencies;
     }
     
     /**
@@ -0,0 +1,137 @@
+package com.ecommerce.order.saga;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Saga Log
+ *
+ * Durable, append-only record of saga transitions (table saga_log), one narrow
+ * row per transition and never updated.
+ *
+ * Ownership:
+ * The primary key (saga_id, seq) fences concurrent writers. Whoever appends a
+ * sequence number first owns the saga from there; a writer that finds its next
+ * sequence taken has lost the saga (e.g. to recovery on another instance) and
+ * gets SagaOwnershipLostException.
+ *
+ * Open sagas:
+ * Each unfinished saga also has one row in saga_state (type and time of its
+ * latest transition), written by the same statement as its log row and
+ * deleted by its terminal transition. The recovery scan reads only that small
+ * table, however much finished history saga_log holds.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class SagaLog {
+
+    private static final String TERMINAL_TYPES = "('SAGA_COMPLETED', 'SAGA_COMPENSATED', 'SAGA_FAILED')";
+
+    private static final String INSERT_LOG_SQL =
+        "WITH logged AS (" +
+        "INSERT INTO saga_log (saga_id, seq, saga_type, transition, step_index, detail, recorded_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING saga_id, saga_type, recorded_at) ";
+
+    // Open or touch the saga's state row, unless the saga already finished (a late write of a lost owner)
+    private static final String INSERT_SQL = INSERT_LOG_SQL +
+        "INSERT INTO saga_state (saga_id, saga_type, last_seen) " +
+        "SELECT l.saga_id, l.saga_type, l.recorded_at FROM logged l " +
+        "WHERE NOT EXISTS (SELECT 1 FROM saga_log t WHERE t.saga_id = l.saga_id " +
+        "                  AND t.transition IN " + TERMINAL_TYPES + ") " +
+        "ON CONFLICT (saga_id) DO UPDATE SET last_seen = EXCLUDED.last_seen";
+
+    private static final String INSERT_TERMINAL_SQL = INSERT_LOG_SQL +
+        "DELETE FROM saga_state WHERE saga_id IN (SELECT saga_id FROM logged)";
+
+    private static final String FIND_STALE_SQL =
+        "SELECT saga_id FROM saga_state WHERE last_seen < ? ORDER BY last_seen LIMIT ?";
+
+    private static final String PURGE_SQL =
+        "DELETE FROM saga_log WHERE saga_id IN (" +
+        "SELECT saga_id FROM saga_log WHERE transition IN " + TERMINAL_TYPES + " AND recorded_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Append a transition, keeping the saga's saga_state row in step
+     *
+     * @throws SagaOwnershipLostException if the sequence number is already taken
+     */
+    public void append(SagaTransition transition) {
+        try {
+            jdbcTemplate.update(transition.type().isTerminal() ? INSERT_TERMINAL_SQL : INSERT_SQL,
+                transition.sagaId(),
+                transition.sequence(),
+                transition.sagaType(),
+                transition.type().name(),
+                transition.stepIndex(),
+                transition.detail(),
+                Timestamp.from(transition.recordedAt()));
+        } catch (DuplicateKeyException e) {
+            throw new SagaOwnershipLostException(transition.sagaId(), transition.sequence());
+        }
+    }
+
+    /**
+     * A saga's transitions in sequence order
+     */
+    public List<SagaTransition> findHistory(UUID sagaId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM saga_log WHERE saga_id = ? ORDER BY seq", SagaLog::mapTransition, sagaId);
+    }
+
+    /**
+     * Histories of unfinished sagas with no transition since the cutoff
+     */
+    public Map<UUID, List<SagaTransition>> findStaleSagas(Instant inactiveSince, int limit) {
+        List<UUID> sagaIds = jdbcTemplate.queryForList(
+            FIND_STALE_SQL, UUID.class, Timestamp.from(inactiveSince), limit);
+        Map<UUID, List<SagaTransition>> histories = new LinkedHashMap<>();
+        for (UUID sagaId : sagaIds) {
+            histories.put(sagaId, findHistory(sagaId));
+        }
+        return histories;
+    }
+
+    /**
+     * Delete the logs of sagas that finished before the cutoff
+     *
+     * @return number of rows deleted
+     */
+    public int purgeFinishedBefore(Instant cutoff) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.from(cutoff));
+    }
+
+    private static SagaTransition mapTransition(ResultSet rs, int rowNum) throws SQLException {
+        return new SagaTransition(
+            rs.getObject("saga_id", UUID.class),
+            rs.getInt("seq"),
+            rs.getString("saga_type"),
+            SagaTransition.Type.valueOf(rs.getString("transition")),
+            rs.getObject("step_index", Integer.class),
+            rs.getString("detail"),
+            rs.getTimestamp("recorded_at").toInstant());
+    }
+
+    /**
+     * Another writer appended to the saga's log first
+     */
+    public static class SagaOwnershipLostException extends RuntimeException {
+        public SagaOwnershipLostException(UUID sagaId, int sequence) {
+            super("Saga " + sagaId + " log position " + sequence + " was written by another owner");
+        }
+    }
+}
@@ -1,40 +1,125 @@
 package com.ecommerce.order.saga;
 
+import com.ecommerce.order.metrics.SagaMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Saga Orchestrator Service
  * 
  * Central coordinator for executing sagas. Manages saga lifecycle:
  * 1. Create saga instance
- * 2. Execute steps sequentially
+ * 2. Execute steps in dependency order
  * 3. Handle failures with compensation
  * 4. Track saga state
  * 
  * Persistent Storage:
- * In production, saga state should be persisted to database for:
- * - Recovery after service restart
- * - Monitoring and debugging
- * - Manual intervention for failed compensations
+ * Every transition is appended to the SagaLog, so saga state survives a
+ * restart:
+ * - SagaRecoveryScanner resumes or compensates sagas left unfinished
+ * - getSagaHistory shows finished sagas for monitoring and debugging
+ * - Failed compensations stay in the log for manual intervention
  * 
- * For this implementation, we use in-memory storage with the understanding
- * that production should use persistent storage.
+ * Non-blocking Execution:
+ * executeSagaNonBlocking drives the saga's step graph with CompletableFutures on
+ * the sagaExecutor, running independent steps in parallel. Retry backoff is
+ * scheduled on a small private scheduler (saga.retry.scheduler-threads), so
+ * waiting sagas hold no threads.
+ * 
+ * Deadlines:
+ * Every saga gets a deadline: its SagaDefinition's timeout, or saga.timeout-ms
+ * (default 60s, 0 = none), counted from its start so a recovered saga keeps its
+ * original deadline. Steps time out at the deadline or their own timeout; an
+ * expired saga is compensated. Non-blocking execution cancels stuck steps and
+ * frees their threads; executeSaga can only check between attempts.
+ * 
+ * Metrics:
+ * Transitions are also reported to SagaMetrics once logged: saga and step
+ * durations, retries, compensations and the number of sagas in flight.
+ * 
+ * Only running sagas are kept in memory; they are evicted as soon as they
+ * finish, so the heap stays flat under sustained order volume.
  */
 @Service
 @Slf4j
 public class SagaOrchestrator {
     
-    // In-memory saga storage (use database in production)
+    // Sagas running on this instance
     private final Map<UUID, SagaInstance> activeSagas = new ConcurrentHashMap<>();
     
+    private final SagaLog sagaLog;
+    private final ObjectProvider<SagaDefinition> definitionProvider;
+    private final Executor sagaExecutor;
+    private final SagaMetrics sagaMetrics;
+    
+    @Value("${saga.retry.scheduler-threads:1}")
+    private int retrySchedulerThreads;
+    
+    @Value("${saga.timeout-ms:60000}")
+    private long sagaTimeoutMs;
+    
+    private Map<String, SagaDefinition> definitions = Map.of();
+    
+    private ScheduledExecutorService retryScheduler;
+    
+    public SagaOrchestrator(SagaLog sagaLog,
+                            ObjectProvider<SagaDefinition> definitionProvider,
+                            @Qualifier("sagaExecutor") Executor sagaExecutor,
+                            SagaMetrics sagaMetrics) {
+        this.sagaLog = sagaLog;
+        this.definitionProvider = definitionProvider;
+        this.sagaExecutor = sagaExecutor;
+        this.sagaMetrics = sagaMetrics;
+    }
+    
+    /**
+     * Index saga definitions by saga type
+     */
+    @PostConstruct
+    void initDefinitions() {
+        this.definitions = definitionProvider.orderedStream()
+            .collect(Collectors.toMap(SagaDefinition::getSagaType, Function.identity()));
+    }
+    
+    /**
+     * Start the scheduler that delays step retries and enforces step deadlines
+     * Kept private rather than a bean so it is never picked up for @Scheduled tasks.
+     */
+    @PostConstruct
+    void initRetryScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(retrySchedulerThreads, task -> {
+            Thread thread = new Thread(task, "saga-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.retryScheduler = scheduler;
+    }
+    
+    @PreDestroy
+    void shutdownRetryScheduler() {
+        retryScheduler.shutdownNow();
+    }
+    
     /**
      * Create and start a new saga
      * 
@@ -43,15 +128,147 @@ public class SagaOrchestrator {
      * @return The created saga instance
      */
     public SagaInstance createSaga(String sagaType, List<SagaStep> steps) {
-        SagaInstance saga = new SagaInstance(sagaType, steps);
+        return register(new SagaInstance(sagaType, steps));
+    }
+    
+    /**
+     * Create a saga from its registered SagaDefinition
+     * Unlike createSaga with ad-hoc steps, such a saga can be recovered after a restart.
+     * 
+     * @param sagaType Type of a SagaDefinition bean
+     * @param payload Input the definition builds the steps from
+     */
+    public SagaInstance startSaga(String sagaType, String payload) {
+        SagaDefinition definition = definitions.get(sagaType);
+        if (definition == null) {
+            throw new IllegalArgumentException("No saga definition for type: " + sagaType);
+        }
+        return register(new SagaInstance(sagaType, definition.createSteps(payload), payload));
+    }
+    
+    /**
+     * Log the saga's start and track it as active
+     */
+    private SagaInstance register(SagaInstance saga) {
+        saga.setDeadline(deadlineFor(saga));
+        saga.setTransitionListener(transition -> onTransition(saga, transition));
+        saga.recordStarted();
         activeSagas.put(saga.getSagaId(), saga);
+        sagaMetrics.incrementSagasInFlight();
         
         log.info("Created saga {} of type '{}' with {} steps", 
-            saga.getSagaId(), sagaType, steps.size());
+            saga.getSagaId(), saga.getSagaType(), saga.getSteps().size());
         
         return saga;
     }
     
+    /**
+     * Deadline of a saga: its start plus the timeout of its type
+     */
+    private Instant deadlineFor(SagaInstance saga) {
+        SagaDefinition definition = definitions.get(saga.getSagaType());
+        Duration timeout = definition != null ? definition.getTimeout() : null;
+        if (timeout == null && sagaTimeoutMs > 0) {
+            timeout = Duration.ofMillis(sagaTimeoutMs);
+        }
+        return timeout != null ? saga.getCreatedAt().plus(timeout) : null;
+    }
+    
+    /**
+     * Append a transition to the saga log, then record its metrics
+     */
+    private void onTransition(SagaInstance saga, SagaTransition transition) {
+        sagaLog.append(transition);
+        
+        String sagaType = saga.getSagaType();
+        switch (transition.type()) {
+            case STEP_COMPLETED, STEP_FAILED, STEP_TIMED_OUT -> {
+                SagaStep step = saga.getSteps().get(transition.stepIndex());
+                if (step.getStartedAt() != null) {
+                    String outcome = switch (transition.type()) {
+                        case STEP_COMPLETED -> "success";
+                        case STEP_TIMED_OUT -> "timeout";
+                        default -> "failure";
+                    };
+                    sagaMetrics.recordStepDuration(sagaType, step.getMetricName(), outcome,
+                        Duration.between(step.getStartedAt(), transition.recordedAt()));
+                }
+                // retryCount counts failed attempts; an exhausted step's last failure was not retried
+                sagaMetrics.recordStepRetries(sagaType, step.getMetricName(),
+                    Math.min(step.getRetryCount(), step.getMaxRetries()));
+            }
+            case STEP_COMPENSATED, STEP_COMPENSATION_FAILED -> sagaMetrics.recordCompensation(sagaType,
+                saga.getSteps().get(transition.stepIndex()).getMetricName(),
+                transition.type() == SagaTransition.Type.STEP_COMPENSATED);
+            case SAGA_COMPLETED, SAGA_COMPENSATED, SAGA_FAILED -> sagaMetrics.recordSagaDuration(sagaType,
+                transition.type().name().substring("SAGA_".length()).toLowerCase(),
+                Duration.between(saga.getCreatedAt(), transition.recordedAt()));
+            default -> { }
+        }
+    }
+    
+    /**
+     * Take over an unfinished saga from its log and finish it on the saga executor
+     * 
+     * A saga that was compensating keeps compensating. Otherwise it resumes if
+     * every step the crash may have interrupted (the steps that were ready to
+     * run) is idempotent, and is compensated, including those steps, if not.
+     * 
+     * @return false if the saga cannot be recovered or another instance took it first
+     */
+    public boolean recoverSaga(List<SagaTransition> history) {
+        SagaTransition started = history.get(0);
+        SagaDefinition definition = definitions.get(started.sagaType());
+        SagaInstance saga;
+        try {
+            if (definition == null) {
+                // Ad-hoc steps cannot be rebuilt; close the saga so it is not scanned again
+                log.error("Saga {} of type '{}' has no SagaDefinition and needs manual intervention",
+                    started.sagaId(), started.sagaType());
+                sagaLog.append(new SagaTransition(started.sagaId(), history.get(history.size() - 1).sequence() + 1,
+                    started.sagaType(), SagaTransition.Type.SAGA_FAILED, null,
+                    "Not recoverable: no saga definition", Instant.now()));
+                return false;
+            }
+            saga = SagaInstance.restore(history, definition.createSteps(started.detail()));
+            saga.setDeadline(deadlineFor(saga));
+            saga.setTransitionListener(transition -> onTransition(saga, transition));
+            saga.recordRecoveryStarted();
+        } catch (SagaLog.SagaOwnershipLostException e) {
+            log.debug("Saga {} was recovered elsewhere", started.sagaId());
+            return false;
+        }
+        
+        activeSagas.put(saga.getSagaId(), saga);
+        sagaMetrics.incrementSagasInFlight();
+        log.info("Recovering saga {} ({}) at step {}/{}", saga.getSagaId(), saga.getStatus(),
+            saga.getCurrentStepIndex(), saga.getSteps().size());
+        
+        List<SagaStep> interrupted = saga.getInterruptedSteps();
+        boolean resume = saga.getStatus() != SagaInstance.SagaStatus.COMPENSATING
+            && interrupted.stream().allMatch(SagaStep::isIdempotent);
+        if (resume) {
+            executeSagaNonBlocking(saga);
+            return true;
+        }
+        
+        sagaExecutor.execute(() -> {
+            try {
+                if (saga.getStatus() == SagaInstance.SagaStatus.COMPENSATING) {
+                    saga.startCompensation();
+                } else {
+                    saga.compensateInterruptedSteps("Interrupted by restart at steps "
+                        + interrupted.stream().map(SagaStep::getName).collect(Collectors.joining(", ")));
+                }
+            } catch (SagaLog.SagaOwnershipLostException e) {
+                log.warn("Lost ownership of recovering saga {}: {}", saga.getSagaId(), e.getMessage());
+            } finally {
+                cleanupSaga(saga.getSagaId());
+            }
+        });
+        return true;
+    }
+    
     /**
      * Execute saga synchronously
      * 
@@ -61,12 +278,19 @@ public class SagaOrchestrator {
     public boolean executeSaga(SagaInstance saga) {
         log.info("Starting saga execution: {}", saga.getSagaId());
         
-        while (!saga.isComplete()) {
-            boolean canContinue = saga.executeNextStep();
-            if (!canContinue && !saga.isComplete()) {
-                // Step failed, compensation started
-                break;
+        try {
+            while (!saga.isComplete()) {
+                boolean canContinue = saga.executeNextStep();
+                if (!canContinue && !saga.isComplete()) {
+                    // Step failed, compensation started
+                    break;
+                }
             }
+        } catch (SagaLog.SagaOwnershipLostException e) {
+            // Another instance recovered the saga; it finishes it from the log
+            log.warn("Stopped saga {}: {}", saga.getSagaId(), e.getMessage());
+            cleanupSaga(saga.getSagaId());
+            return false;
         }
         
         boolean success = saga.isSuccessful();
@@ -76,21 +300,46 @@ public class SagaOrchestrator {
             log.error("Saga {} failed: {}", saga.getSagaId(), saga.getFailureReason());
         }
         
-        // In production: persist final state to database
-        // cleanupSaga(saga.getSagaId());
+        // Final state is in the saga log
+        cleanupSaga(saga.getSagaId());
         
         return success;
     }
     
+    /**
+     * Execute saga without blocking any thread between or during retries
+     * 
+     * Every step whose dependencies have completed is started at once: Runnable
+     * actions on the sagaExecutor, asyncActions wherever their stages complete.
+     * 
+     * @param saga The saga to execute
+     * @return Completes with true if successful, false if failed
+     */
+    public CompletableFuture<Boolean> executeSagaNonBlocking(SagaInstance saga) {
+        log.info("Starting non-blocking saga execution: {}", saga.getSagaId());
+        
+        return saga.executeAsync(sagaExecutor, retryScheduler).handle((ignored, error) -> {
+            if (error != null) {
+                log.error("Saga {} stopped: {}", saga.getSagaId(), error.getMessage());
+            } else if (saga.isSuccessful()) {
+                log.info("Saga {} completed successfully", saga.getSagaId());
+            } else {
+                log.error("Saga {} failed: {}", saga.getSagaId(), saga.getFailureReason());
+            }
+            cleanupSaga(saga.getSagaId());
+            return error == null && saga.isSuccessful();
+        });
+    }
+    
     /**
      * Execute saga asynchronously
+     * Runs on the sagaExecutor via executeSagaNonBlocking, so step deadlines are enforced.
      * 
      * @param saga The saga to execute
      * @return CompletableFuture with success status
      */
-    @Async("sagaExecutor")
     public CompletableFuture<Boolean> executeSagaAsync(SagaInstance saga) {
-        return CompletableFuture.supplyAsync(() -> executeSaga(saga));
+        return executeSagaNonBlocking(saga);
     }
     
     /**
@@ -100,6 +349,13 @@ public class SagaOrchestrator {
         return activeSagas.get(sagaId);
     }
     
+    /**
+     * Get the logged transitions of a saga, running or finished
+     */
+    public List<SagaTransition> getSagaHistory(UUID sagaId) {
+        return sagaLog.findHistory(sagaId);
+    }
+    
     /**
      * Get all active sagas
      */
@@ -108,13 +364,12 @@ public class SagaOrchestrator {
     }
     
     /**
-     * Cancel a running saga (trigger compensation)
+     * Cancel a running saga (trigger compensation once its running steps finish)
      */
     public void cancelSaga(UUID sagaId) {
         SagaInstance saga = activeSagas.get(sagaId);
-        if (saga != null && !saga.isComplete()) {
+        if (saga != null && saga.cancel("Saga cancelled")) {
             log.info("Cancelling saga {}", sagaId);
-            saga.startCompensation();
         }
     }
     
@@ -124,6 +379,7 @@ public class SagaOrchestrator {
     public void cleanupSaga(UUID sagaId) {
         SagaInstance removed = activeSagas.remove(sagaId);
         if (removed != null) {
+            sagaMetrics.decrementSagasInFlight();
             log.debug("Cleaned up saga {}", sagaId);
         }
     }
@@ -221,4 +477,75 @@ public class SagaOrchestrator {
         
         return createSaga("OrderProcessing", steps);
     }
+    
+    /**
+     * Create Order Processing Saga with one inventory reservation per line item
+     * 
+     * The reservations run in parallel, so the saga is only as slow as its
+     * slowest reservation rather than their sum:
+     * 
+     *                  +-- Reserve item 1 --+
+     *   ValidateOrder -+-- Reserve item 2 --+-- ProcessPayment -- CreateOrder -- SendNotification
+     *                  +-- Reserve item n --+
+     * 
+     * If any step fails, the reservations that completed are released.
+     * 
+     * @param lineItemReservations One step per line item, each with its release as compensation;
+     *                             names must be unique; dependencies and the ReserveInventory
+     *                             metric name are added here
+     */
+    public SagaInstance createOrderProcessingSaga(
+            Runnable validateOrder,
+            List<SagaStep.Builder> lineItemReservations,
+            Runnable processPayment,
+            Runnable refundPayment,
+            Runnable createOrder,
+            Runnable cancelOrder,
+            Runnable sendNotification) {
+        
+        List<SagaStep> steps = new ArrayList<>();
+        steps.add(SagaStep.builder()
+            .name("ValidateOrder")
+            .description("Validate order request")
+            .action(validateOrder)
+            .maxRetries(1)
+            .build());
+        
+        List<String> reservationNames = new ArrayList<>();
+        for (SagaStep.Builder reservation : lineItemReservations) {
+            SagaStep step = reservation.dependsOn("ValidateOrder").metricName("ReserveInventory").build();
+            reservationNames.add(step.getName());
+            steps.add(step);
+        }
+        
+        steps.add(SagaStep.builder()
+            .name("ProcessPayment")
+            .description("Process payment via payment service")
+            .action(processPayment)
+            .compensation(refundPayment)
+            .maxRetries(3)
+            .dependsOn(reservationNames.isEmpty()
+                ? new String[] {"ValidateOrder"}
+                : reservationNames.toArray(String[]::new))
+            .build());
+        
+        steps.add(SagaStep.builder()
+            .name("CreateOrder")
+            .description("Persist order to database")
+            .action(createOrder)
+            .compensation(cancelOrder)
+            .maxRetries(3)
+            .dependsOn("ProcessPayment")
+            .build());
+        
+        steps.add(SagaStep.builder()
+            .name("SendNotification")
+            .description("Send order confirmation notification")
+            .action(sendNotification)
+            .maxRetries(2) // No compensation - notifications can fail silently
+            .dependsOn("CreateOrder")
+            .build());
+        
+        return createSaga("OrderProcessing", steps);
+    }
 }
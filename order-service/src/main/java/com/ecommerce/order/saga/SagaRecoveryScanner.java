@@ -0,0 +1,85 @@
+package com.ecommerce.order.saga;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Saga Recovery Scanner
+ *
+ * Finds sagas in the SagaLog that never finished and hands them to
+ * SagaOrchestrator.recoverSaga. Runs at startup and then every
+ * saga.recovery.interval-ms, so sagas orphaned by a crashed peer are picked
+ * up too.
+ *
+ * A saga counts as orphaned once it has logged nothing for
+ * saga.recovery.stale-after-ms (default 5 minutes), which must exceed the
+ * longest step including its retries. If its owner is in fact still alive,
+ * the log's sequence fence stops that owner at its next step.
+ *
+ * Also purges the logs of sagas that finished more than
+ * saga.log.retention-days ago.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaRecoveryScanner {
+
+    private final SagaLog sagaLog;
+    private final SagaOrchestrator sagaOrchestrator;
+
+    @Value("${saga.recovery.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    @Value("${saga.recovery.batch-size:100}")
+    private int batchSize;
+
+    @Value("${saga.log.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * Recover orphaned sagas
+     */
+    @Scheduled(initialDelayString = "${saga.recovery.initial-delay-ms:0}",
+               fixedDelayString = "${saga.recovery.interval-ms:60000}")
+    public void recoverStaleSagas() {
+        try {
+            Map<UUID, List<SagaTransition>> stale =
+                sagaLog.findStaleSagas(Instant.now().minusMillis(staleAfterMs), batchSize);
+            int recovered = 0;
+            for (List<SagaTransition> history : stale.values()) {
+                if (sagaOrchestrator.getSaga(history.get(0).sagaId()) != null) {
+                    // Still running here, just quiet
+                    continue;
+                }
+                if (sagaOrchestrator.recoverSaga(history)) {
+                    recovered++;
+                }
+            }
+            if (!stale.isEmpty()) {
+                log.info("Saga recovery: {} unfinished sagas found, {} taken over", stale.size(), recovered);
+            }
+        } catch (Exception e) {
+            log.error("Saga recovery scan failed; retrying on next run", e);
+        }
+    }
+
+    /**
+     * Drop logs of long-finished sagas
+     */
+    @Scheduled(cron = "${saga.log.purge-cron:0 0 4 * * *}")
+    public void purgeFinishedSagas() {
+        int deleted = sagaLog.purgeFinishedBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+        if (deleted > 0) {
+            log.info("Purged {} saga log entries older than {} days", deleted, retentionDays);
+        }
+    }
+}
@@ -4,7 +4,24 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 /**
@@ -12,6 +29,8 @@ import java.util.function.Supplier;
  * 
  * Each step has:
  * - Name: Identifier for the step
+ * - Metric name: The step kind used as a metrics tag; defaults to the name and
+ *   must come from a bounded set (e.g. ReserveInventory for every line item)
  * - Action: The operation to execute
  * - Compensation: The rollback operation
  * - Status: Current execution state
@@ -25,6 +44,33 @@ import java.util.function.Supplier;
  * - Steps can be retried on transient failures
  * - Max retries configurable per step
  * - Exponential backoff between retries
+ * 
+ * Asynchronous Execution:
+ * executeAsync never blocks: each attempt runs on an executor, or is started by
+ * an asyncAction that returns a CompletionStage (e.g. a non-blocking client
+ * call), and the backoff before a retry is a task on a scheduler. Thousands of
+ * steps can wait for retries without holding a thread each. execute() keeps
+ * the blocking behaviour for synchronous sagas.
+ * 
+ * Timeouts:
+ * A step must finish, retries included, within timeoutMs (0 = no limit of its
+ * own) and before the saga's deadline, whichever comes first. In executeAsync
+ * the deadline cancels the running attempt, interrupting a blocked action
+ * thread, and fails the step with StepTimeoutException; a late result is
+ * ignored. execute() can only check the deadline between attempts and bound
+ * waits on an asyncAction. A timed-out step may still have taken effect, so
+ * it is compensated along with the completed steps.
+ * 
+ * Dependencies:
+ * dependsOn names the steps that must complete before this one starts. When no
+ * step of a saga declares dependencies the steps run in list order; otherwise
+ * they form a graph and steps without dependencies start right away.
+ * 
+ * Recovery:
+ * A step marked idempotent is re-executed when a saga is recovered after a
+ * crash that may have interrupted it. Otherwise recovery compensates the saga,
+ * including the interrupted step, so compensations must tolerate a step that
+ * never ran.
  */
 @Getter
 @Setter
@@ -32,14 +78,20 @@ import java.util.function.Supplier;
 public class SagaStep {
     
     private final String name;
+    private final String metricName;
     private final String description;
     private final Runnable action;
+    private final Supplier<? extends CompletionStage<?>> asyncAction;
     private final Runnable compensation;
     private final int maxRetries;
     private final long retryDelayMs;
+    private final boolean idempotent;
+    private final long timeoutMs;
+    private final Set<String> dependsOn;
     
     private StepStatus status;
     private String errorMessage;
+    private Instant startedAt;
     private Instant executedAt;
     private Instant compensatedAt;
     private int retryCount;
@@ -49,6 +101,7 @@ public class SagaStep {
         IN_PROGRESS,          // Currently executing
         COMPLETED,            // Successfully executed
         FAILED,               // Execution failed
+        TIMED_OUT,            // Deadline passed; outcome unknown, so it is compensated
         COMPENSATING,         // Compensation in progress
         COMPENSATED,          // Successfully compensated
         COMPENSATION_FAILED   // Compensation failed (requires manual intervention)
@@ -73,12 +126,32 @@ public class SagaStep {
      */
     public SagaStep(String name, String description, Runnable action, 
                     Runnable compensation, int maxRetries, long retryDelayMs) {
+        this(name, description, action, compensation, maxRetries, retryDelayMs, false);
+    }
+    
+    /**
+     * Create a saga step with full configuration, including recovery behaviour
+     */
+    public SagaStep(String name, String description, Runnable action, 
+                    Runnable compensation, int maxRetries, long retryDelayMs, boolean idempotent) {
+        this(name, name, description, action, null, compensation, maxRetries, retryDelayMs, idempotent, 0, Set.of());
+    }
+    
+    private SagaStep(String name, String metricName, String description, Runnable action,
+                     Supplier<? extends CompletionStage<?>> asyncAction, Runnable compensation,
+                     int maxRetries, long retryDelayMs, boolean idempotent, long timeoutMs,
+                     Set<String> dependsOn) {
         this.name = name;
+        this.metricName = metricName;
         this.description = description;
         this.action = action;
+        this.asyncAction = asyncAction;
         this.compensation = compensation;
         this.maxRetries = maxRetries;
         this.retryDelayMs = retryDelayMs;
+        this.idempotent = idempotent;
+        this.timeoutMs = timeoutMs;
+        this.dependsOn = Set.copyOf(dependsOn);
         this.status = StepStatus.PENDING;
         this.retryCount = 0;
     }
@@ -87,15 +160,36 @@ public class SagaStep {
      * Execute the step with retry logic
      */
     public void execute() throws Exception {
+        execute(null);
+    }
+    
+    /**
+     * Execute the step with retry logic, giving up at the step or saga deadline
+     * 
+     * @param sagaDeadline Deadline of the whole saga, null for none
+     * @throws StepTimeoutException if the deadline passes first
+     */
+    public void execute(Instant sagaDeadline) throws Exception {
         status = StepStatus.IN_PROGRESS;
+        startedAt = Instant.now();
+        Instant deadline = stepDeadline(sagaDeadline);
         
         while (retryCount <= maxRetries) {
             try {
-                action.run();
+                checkDeadline(deadline);
+                if (action != null) {
+                    action.run();
+                } else {
+                    awaitAsyncAction(deadline);
+                }
                 status = StepStatus.COMPLETED;
                 executedAt = Instant.now();
                 log.info("Step '{}' executed successfully", name);
                 return;
+            } catch (StepTimeoutException e) {
+                status = StepStatus.TIMED_OUT;
+                log.warn("Step '{}' timed out: {}", name, e.getMessage());
+                throw e;
             } catch (Exception e) {
                 retryCount++;
                 log.warn("Step '{}' attempt {}/{} failed: {}", 
@@ -105,14 +199,188 @@ public class SagaStep {
                     throw e;
                 }
                 
-                // Wait before retry (exponential backoff)
+                // Wait before retry (exponential backoff), but not past the deadline
                 long delay = retryDelayMs * (1L << (retryCount - 1));
+                if (deadline != null) {
+                    delay = Math.min(delay, Math.max(0, Duration.between(Instant.now(), deadline).toMillis()));
+                }
                 log.debug("Waiting {}ms before retry", delay);
                 Thread.sleep(delay);
             }
         }
     }
     
+    private void awaitAsyncAction(Instant deadline) throws Exception {
+        CompletableFuture<?> future = asyncAction.get().toCompletableFuture();
+        try {
+            if (deadline == null) {
+                future.get();
+            } else {
+                future.get(Math.max(0, Duration.between(Instant.now(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new StepTimeoutException(name, deadline);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+    
+    private void checkDeadline(Instant deadline) {
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            throw new StepTimeoutException(name, deadline);
+        }
+    }
+    
+    /**
+     * Execute the step with retry logic, without blocking the calling thread
+     * 
+     * @param executor Runs Runnable actions and starts each attempt
+     * @param scheduler Delays retries; only hands attempts back to the executor
+     * @return Completes when the step succeeds, or exceptionally with the last
+     *         failure once retries are exhausted
+     */
+    public CompletableFuture<Void> executeAsync(Executor executor, ScheduledExecutorService scheduler) {
+        return executeAsync(executor, scheduler, null);
+    }
+    
+    /**
+     * Execute the step with retry logic and a deadline, without blocking the calling thread
+     * 
+     * @param sagaDeadline Deadline of the whole saga, null for none
+     * @return Completes when the step succeeds, or exceptionally with the last
+     *         failure once retries are exhausted, or with StepTimeoutException
+     *         once the deadline passes
+     */
+    public CompletableFuture<Void> executeAsync(Executor executor, ScheduledExecutorService scheduler,
+                                                Instant sagaDeadline) {
+        status = StepStatus.IN_PROGRESS;
+        startedAt = Instant.now();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        AtomicReference<Future<?>> running = new AtomicReference<>();
+        
+        Instant deadline = stepDeadline(sagaDeadline);
+        if (deadline != null) {
+            try {
+                ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                    if (result.completeExceptionally(new StepTimeoutException(name, deadline))) {
+                        status = StepStatus.TIMED_OUT;
+                        log.warn("Step '{}' timed out, cancelling it", name);
+                        cancel(running.get());
+                    }
+                }, Math.max(0, Duration.between(Instant.now(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+                result.whenComplete((ignored, error) -> timer.cancel(false));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+                return result;
+            }
+        }
+        
+        attempt(executor, scheduler, result, running);
+        return result;
+    }
+    
+    /**
+     * Run one attempt and, if it fails, schedule the next one
+     */
+    private void attempt(Executor executor, ScheduledExecutorService scheduler,
+                         CompletableFuture<Void> result, AtomicReference<Future<?>> running) {
+        if (result.isDone()) {
+            // Timed out during the backoff
+            return;
+        }
+        
+        CompletableFuture<?> stage;
+        try {
+            if (asyncAction != null) {
+                stage = asyncAction.get().toCompletableFuture();
+                running.set(stage);
+            } else {
+                CompletableFuture<Void> ran = new CompletableFuture<>();
+                FutureTask<Void> task = new FutureTask<>(action, null) {
+                    @Override
+                    protected void done() {
+                        try {
+                            get();
+                            ran.complete(null);
+                        } catch (ExecutionException e) {
+                            ran.completeExceptionally(e.getCause());
+                        } catch (Exception e) {
+                            ran.completeExceptionally(e);
+                        }
+                    }
+                };
+                running.set(task);
+                executor.execute(task);
+                stage = ran;
+            }
+        } catch (Exception e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        if (result.isDone()) {
+            // Timed out while the attempt was being started
+            cancel(running.get());
+        }
+        
+        stage.whenComplete((ignored, error) -> {
+            if (result.isDone()) {
+                log.debug("Ignoring late result of timed-out step '{}'", name);
+                return;
+            }
+            if (error == null) {
+                status = StepStatus.COMPLETED;
+                executedAt = Instant.now();
+                log.info("Step '{}' executed successfully", name);
+                result.complete(null);
+                return;
+            }
+            
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+            retryCount++;
+            log.warn("Step '{}' attempt {}/{} failed: {}", 
+                name, retryCount, maxRetries + 1, cause.getMessage());
+            
+            if (retryCount > maxRetries) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            
+            // Exponential backoff on the scheduler; no thread waits in between
+            long delay = retryDelayMs * (1L << (retryCount - 1));
+            log.debug("Retrying step '{}' in {}ms", name, delay);
+            try {
+                scheduler.schedule(() -> {
+                    try {
+                        executor.execute(() -> attempt(executor, scheduler, result, running));
+                    } catch (RejectedExecutionException e) {
+                        result.completeExceptionally(e);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+    
+    private static void cancel(Future<?> attempt) {
+        if (attempt != null) {
+            attempt.cancel(true);
+        }
+    }
+    
+    /**
+     * The earlier of this step's own timeout and the saga deadline, null if neither applies
+     */
+    private Instant stepDeadline(Instant sagaDeadline) {
+        Instant deadline = timeoutMs > 0 ? startedAt.plusMillis(timeoutMs) : null;
+        if (sagaDeadline != null && (deadline == null || sagaDeadline.isBefore(deadline))) {
+            deadline = sagaDeadline;
+        }
+        return deadline;
+    }
+    
     /**
      * Execute compensation (rollback)
      */
@@ -162,17 +430,30 @@ public class SagaStep {
      */
     public static class Builder {
         private String name;
+        private String metricName;
         private String description;
         private Runnable action;
+        private Supplier<? extends CompletionStage<?>> asyncAction;
         private Runnable compensation;
         private int maxRetries = 3;
         private long retryDelayMs = 1000;
+        private boolean idempotent;
+        private long timeoutMs;
+        private final Set<String> dependsOn = new LinkedHashSet<>();
         
         public Builder name(String name) {
             this.name = name;
             return this;
         }
         
+        /**
+         * Step kind reported in metrics tags, for steps whose names are not from a bounded set
+         */
+        public Builder metricName(String metricName) {
+            this.metricName = metricName;
+            return this;
+        }
+        
         public Builder description(String description) {
             this.description = description;
             return this;
@@ -183,6 +464,14 @@ public class SagaStep {
             return this;
         }
         
+        /**
+         * Non-blocking action: starts the work and returns a stage that completes with it
+         */
+        public Builder asyncAction(Supplier<? extends CompletionStage<?>> asyncAction) {
+            this.asyncAction = asyncAction;
+            return this;
+        }
+        
         public Builder compensation(Runnable compensation) {
             this.compensation = compensation;
             return this;
@@ -198,15 +487,46 @@ public class SagaStep {
             return this;
         }
         
+        public Builder idempotent(boolean idempotent) {
+            this.idempotent = idempotent;
+            return this;
+        }
+        
+        /**
+         * Time limit for the step, retries included; 0 leaves only the saga deadline
+         */
+        public Builder timeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            return this;
+        }
+        
+        /**
+         * Steps that must complete before this one starts
+         */
+        public Builder dependsOn(String... stepNames) {
+            Collections.addAll(this.dependsOn, stepNames);
+            return this;
+        }
+        
         public SagaStep build() {
-            if (name == null || action == null) {
-                throw new IllegalStateException("Name and action are required");
+            if (name == null || (action == null) == (asyncAction == null)) {
+                throw new IllegalStateException("Name and exactly one of action or asyncAction are required");
             }
-            return new SagaStep(name, description, action, compensation, maxRetries, retryDelayMs);
+            return new SagaStep(name, metricName != null ? metricName : name, description, action,
+                asyncAction, compensation, maxRetries, retryDelayMs, idempotent, timeoutMs, dependsOn);
         }
     }
     
     public static Builder builder() {
         return new Builder();
     }
+    
+    /**
+     * The step or saga deadline passed before the step finished
+     */
+    public static class StepTimeoutException extends RuntimeException {
+        public StepTimeoutException(String stepName, Instant deadline) {
+            super("Step '" + stepName + "' did not finish by its deadline " + deadline);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package com.ecommerce.order.saga;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the saga log
+ *
+ * A saga's history is its transitions in sequence order; replaying them
+ * restores a SagaInstance after a restart (see SagaInstance.restore).
+ *
+ * @param sequence Position in the saga's log, starting at 0
+ * @param stepIndex Step the transition refers to, null for saga-level transitions
+ * @param detail Saga payload for SAGA_STARTED, failure reason for failures
+ */
+public record SagaTransition(
+        UUID sagaId,
+        int sequence,
+        String sagaType,
+        Type type,
+        Integer stepIndex,
+        String detail,
+        Instant recordedAt) {
+
+    public enum Type {
+        SAGA_STARTED,
+        STEP_COMPLETED,
+        STEP_FAILED,
+        STEP_TIMED_OUT,
+        COMPENSATION_STARTED,
+        STEP_COMPENSATED,
+        STEP_COMPENSATION_FAILED,
+        RECOVERY_STARTED,
+        SAGA_COMPLETED,
+        SAGA_COMPENSATED,
+        SAGA_FAILED;
+
+        public boolean isTerminal() {
+            return this == SAGA_COMPLETED || this == SAGA_COMPENSATED || this == SAGA_FAILED;
+        }
+    }
+}
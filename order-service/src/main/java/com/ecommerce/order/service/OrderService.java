@@ -18,4 +18,6 @@ public interface OrderService {
   Page<OrderResponse> getUserOrders(UUID userId, Pageable pageable);
 
   void updateOrderStatus(UUID orderId, OrderStatus status);
+
+  boolean transitionOrderStatus(UUID orderId, OrderStatus expected, OrderStatus status);
 }
@@ -1,7 +1,9 @@
 package com.ecommerce.order.service;
 
 import com.ecommerce.order.entity.OrderStatus;
-import com.ecommerce.order.event.PaymentCompletedEvent;
+import com.ecommerce.order.saga.OrderPaymentSagaDefinition;
+import com.ecommerce.order.saga.SagaCommandGateway;
+import com.ecommerce.shared.events.PaymentProcessedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -12,16 +14,38 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class PaymentEventListener {
 
+    // PaymentStatus of a successful payment, as published by payment-service
+    private static final String PAYMENT_SUCCESS = "SUCCESS";
+
     private final OrderService orderService;
+    private final SagaCommandGateway sagaCommandGateway;
 
     @KafkaListener(topics = "payment-events", groupId = "order-service-group")
-    public void handlePaymentEvent(PaymentCompletedEvent event) {
-        log.info("Received payment event for order: {}, success: {}", 
-                event.getOrderId(), event.isSuccess());
+    public void handlePaymentEvent(PaymentProcessedEvent event) {
+        boolean success = PAYMENT_SUCCESS.equalsIgnoreCase(event.getStatus());
+        log.info("Received payment event for order: {}, status: {}", event.getOrderId(), event.getStatus());
+
+        // The order row records the result, whichever instance received it. Only an
+        // order still awaiting payment moves, so a late or duplicate result (e.g. after
+        // an OrderPayment saga timed out and cancelled the order) changes nothing.
+        OrderStatus newStatus = success ? OrderStatus.PAID : OrderStatus.CANCELLED;
+        if (orderService.transitionOrderStatus(event.getOrderId(), OrderStatus.CREATED, newStatus)) {
+            log.info("Order {} status updated to {}", event.getOrderId(), newStatus);
+        } else if (success) {
+            log.warn("Payment succeeded for order {}, which is no longer awaiting payment; it needs a refund",
+                    event.getOrderId());
+        } else {
+            log.info("Ignoring declined payment for order {}, which is no longer awaiting payment",
+                    event.getOrderId());
+        }
 
-        OrderStatus newStatus = event.isSuccess() ? OrderStatus.PAID : OrderStatus.CANCELLED;
-        orderService.updateOrderStatus(event.getOrderId(), newStatus);
-        
-        log.info("Order {} status updated to {}", event.getOrderId(), newStatus);
+        // Resume the OrderPayment saga parked on this instance, if any
+        String replyId = OrderPaymentSagaDefinition.paymentReplyId(event.getOrderId());
+        boolean sagaReply = success
+                ? sagaCommandGateway.completeReply(replyId, event)
+                : sagaCommandGateway.failReply(replyId, "payment " + event.getStatus());
+        if (sagaReply) {
+            log.info("Payment event for order {} resumed its saga", event.getOrderId());
+        }
     }
 }
@@ -3,11 +3,16 @@ package com.ecommerce.order.service.impl;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -27,25 +32,47 @@ import com.ecommerce.order.event.OrderCreatedEvent;
 import com.ecommerce.order.event.OrderItemEvent;
 import com.ecommerce.order.exception.OrderNotFoundException;
 import com.ecommerce.order.metrics.OrderMetrics;
-import com.ecommerce.order.outbox.OutboxEventPublisher;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.saga.OrderPaymentSagaDefinition;
+import com.ecommerce.order.saga.SagaInstance;
+import com.ecommerce.order.saga.SagaOrchestrator;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.shared.outbox.OutboxEventPublisher;
 
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final OutboxEventPublisher outboxPublisher;
     private final OrderMetrics orderMetrics;
+    // Platform pool or virtual threads, see AsyncConfiguration
+    private final Executor orderExecutor;
+    // Resolved lazily: the OrderPayment saga definition depends on this service
+    private final ObjectProvider<SagaOrchestrator> sagaOrchestrator;
+
+    // choreographed: publish OrderCreated and let payment-service react
+    // orchestrated: start the OrderPayment saga, which sends it as a command
+    @Value("${saga.checkout.mode:choreographed}")
+    private String checkoutMode;
+
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            OutboxEventPublisher outboxPublisher,
+                            OrderMetrics orderMetrics,
+                            @Qualifier("orderExecutor") Executor orderExecutor,
+                            ObjectProvider<SagaOrchestrator> sagaOrchestrator) {
+        this.orderRepository = orderRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.orderMetrics = orderMetrics;
+        this.orderExecutor = orderExecutor;
+        this.sagaOrchestrator = sagaOrchestrator;
+    }
 
     @Transactional
     @Caching(evict = @CacheEvict(value = "orderList", key = "#userId + '_0'"), put = @CachePut(value = "orders", key = "#result.id()"))
@@ -90,6 +117,17 @@ public class OrderServiceImpl implements OrderService {
                 orderMetrics.incrementCreatedOrders();
                 orderMetrics.addToTotalValue(savedOrder.getTotalAmount());
 
+                if ("orchestrated".equals(checkoutMode)) {
+                    // The order is committed by save (this runs outside the caller's transaction),
+                    // so the saga's command step can load it
+                    SagaOrchestrator orchestrator = sagaOrchestrator.getObject();
+                    SagaInstance saga = orchestrator.startSaga(
+                            OrderPaymentSagaDefinition.SAGA_TYPE, savedOrder.getId().toString());
+                    orchestrator.executeSagaNonBlocking(saga);
+                    log.info("Started OrderPayment saga {} for order: {}", saga.getSagaId(), savedOrder.getId());
+                    return mapToOrderResponse(savedOrder);
+                }
+
                 // Create an event payload
                 OrderCreatedEvent event = OrderCreatedEvent.builder()
                         .orderId(savedOrder.getId())
@@ -118,7 +156,7 @@ public class OrderServiceImpl implements OrderService {
                 orderMetrics.recordOrderCreation(duration);
                 orderMetrics.decrementActiveOrders();
             }
-        });
+        }, orderExecutor);
     }
 
     /**
@@ -157,7 +195,7 @@ public class OrderServiceImpl implements OrderService {
                 Duration duration = Duration.between(start, Instant.now());
                 orderMetrics.recordOrderRetrieval(duration);
             }
-        });
+        }, orderExecutor);
     }
 
     /**
@@ -210,6 +248,39 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    /**
+     * Move an order to a new status only if it is still in the expected one
+     * Used for transitions driven by messages that may arrive late or twice
+     * (payment results, saga compensations), so they never undo a later decision.
+     *
+     * @return false if the order had already left the expected status
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "orders", key = "#orderId"),
+            @CacheEvict(value = "orderList", allEntries = true)
+    })
+    @CircuitBreaker(name = "databaseCircuitBreaker")
+    @Retry(name = "databaseRetry")
+    @Bulkhead(name = "databaseBulkhead")
+    public boolean transitionOrderStatus(UUID orderId, OrderStatus expected, OrderStatus status) {
+        int updated = orderRepository.updateStatusIfCurrent(orderId, expected, status, LocalDateTime.now());
+        if (updated == 0) {
+            if (!orderRepository.existsById(orderId)) {
+                orderMetrics.recordOrderNotFound();
+                throw OrderNotFoundException.withId(orderId.toString());
+            }
+            log.info("Order {} is no longer {}; not moving it to {}", orderId, expected, status);
+            return false;
+        }
+
+        orderMetrics.recordOrderStatusUpdated();
+        updateStateMetrics(expected, status);
+
+        log.info("Order {} status updated from {} to {}", orderId, expected, status);
+        return true;
+    }
+
     private void updateStateMetrics(OrderStatus oldStatus, OrderStatus newStatus) {
         // Decrement old state
         if (oldStatus == OrderStatus.CREATED) {
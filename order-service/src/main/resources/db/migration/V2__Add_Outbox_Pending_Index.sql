@@ -0,0 +1,26 @@
+-- V2__Add_Outbox_Pending_Index.sql
+-- Outbox poller indexes for Order Service
+
+-- ============================================================================
+-- OUTBOX_EVENTS TABLE INDEXES
+-- ============================================================================
+
+-- Pending events: the poller's hot query
+-- Supports: OutboxEventRepository.findPendingSummaries, claimBatch, findStuckEventSummaries
+-- Only unprocessed rows are indexed, so the index stays as small as the backlog
+-- no matter how much processed history the table holds. The INCLUDE columns cover
+-- OutboxEventSummary, allowing index-only scans without touching payload/metadata.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_pending
+    ON outbox_events(created_at)
+    INCLUDE (id, aggregate_type, aggregate_id, event_type, retry_count)
+    WHERE processed = false;
+
+-- The standalone boolean index is superseded by idx_outbox_pending and only
+-- costs writes on every insert and every processed flag update
+DROP INDEX CONCURRENTLY IF EXISTS idx_outbox_processed;
+
+-- ============================================================================
+-- ANALYZE
+-- ============================================================================
+
+ANALYZE outbox_events;
@@ -0,0 +1,67 @@
+-- V3__Partition_Outbox_Events.sql
+-- Daily range partitioning of the outbox for Order Service
+--
+-- Retention becomes DETACH + DROP of whole partitions (OutboxPartitionManager)
+-- instead of a bulk DELETE, and the poller's created_at lower bound prunes
+-- everything but the recent partitions.
+-- Enable outbox.partitioning.enabled=true once this migration has run.
+
+-- ============================================================================
+-- PARTITIONED OUTBOX_EVENTS TABLE
+-- ============================================================================
+
+ALTER TABLE outbox_events RENAME TO outbox_events_legacy;
+
+-- Free the index and constraint names for the new table
+ALTER TABLE outbox_events_legacy RENAME CONSTRAINT outbox_events_pkey TO outbox_events_legacy_pkey;
+DROP INDEX IF EXISTS idx_outbox_pending;
+DROP INDEX IF EXISTS idx_outbox_created;
+
+-- The partition key must be part of the primary key
+CREATE TABLE outbox_events (
+    LIKE outbox_events_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside every daily range (should stay empty)
+CREATE TABLE outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+-- Partitions for today and the next 7 days; OutboxPartitionManager keeps
+-- creating them ahead of time from here on
+DO $$
+DECLARE
+    day date;
+BEGIN
+    FOR i IN 0..7 LOOP
+        day := (now() AT TIME ZONE 'UTC')::date + i;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+            'outbox_events_p' || to_char(day, 'YYYYMMDD'),
+            day::text || ' 00:00:00+00',
+            (day + 1)::text || ' 00:00:00+00');
+    END LOOP;
+END $$;
+
+-- ============================================================================
+-- INDEXES (created on the parent, propagated to every partition)
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending
+    ON outbox_events(created_at)
+    INCLUDE (id, aggregate_type, aggregate_id, event_type, retry_count)
+    WHERE processed = false;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_created
+    ON outbox_events(created_at);
+
+-- ============================================================================
+-- DATA
+-- ============================================================================
+
+-- Only the backlog is carried over; processed history is retention-only data
+INSERT INTO outbox_events
+SELECT * FROM outbox_events_legacy WHERE processed = false;
+
+DROP TABLE outbox_events_legacy;
+
+ANALYZE outbox_events;
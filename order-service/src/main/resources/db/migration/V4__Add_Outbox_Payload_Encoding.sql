@@ -0,0 +1,23 @@
+-- V4__Add_Outbox_Payload_Encoding.sql
+-- Binary payload encoding for the shared outbox (see OutboxEncoding)
+
+-- ============================================================================
+-- OUTBOX_EVENTS COLUMNS
+-- ============================================================================
+
+-- Altering the partitioned parent applies to every partition.
+-- A constant default is stored in the catalog, so no table rewrite is needed.
+ALTER TABLE outbox_events
+    ADD COLUMN IF NOT EXISTS content_type VARCHAR(100) NOT NULL DEFAULT 'application/json';
+
+-- Compressed payloads are stored here instead of the TEXT payload column
+ALTER TABLE outbox_events
+    ADD COLUMN IF NOT EXISTS payload_bytes BYTEA;
+
+ALTER TABLE outbox_events
+    ALTER COLUMN payload DROP NOT NULL;
+
+-- Exactly one payload representation per row
+ALTER TABLE outbox_events
+    ADD CONSTRAINT chk_outbox_payload
+    CHECK ((payload IS NULL) <> (payload_bytes IS NULL));
@@ -0,0 +1,29 @@
+-- V5__Create_Saga_Log.sql
+-- Durable saga log for SagaOrchestrator (see SagaLog)
+
+-- ============================================================================
+-- SAGA_LOG
+-- ============================================================================
+
+-- Append-only: one narrow row per saga transition, never updated.
+-- The primary key doubles as the ownership fence between instances.
+CREATE TABLE IF NOT EXISTS saga_log (
+    saga_id     UUID         NOT NULL,
+    seq         INT          NOT NULL,
+    saga_type   VARCHAR(100) NOT NULL,
+    transition  VARCHAR(32)  NOT NULL,
+    step_index  INT,
+    detail      TEXT,
+    recorded_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (saga_id, seq)
+);
+
+-- Recovery scan: started sagas, oldest first
+CREATE INDEX IF NOT EXISTS idx_saga_log_started
+    ON saga_log (recorded_at)
+    WHERE transition = 'SAGA_STARTED';
+
+-- Terminal check during recovery and retention purge
+CREATE INDEX IF NOT EXISTS idx_saga_log_finished
+    ON saga_log (recorded_at)
+    WHERE transition IN ('SAGA_COMPLETED', 'SAGA_COMPENSATED', 'SAGA_FAILED');
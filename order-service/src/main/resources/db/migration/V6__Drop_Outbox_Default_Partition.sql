@@ -0,0 +1,34 @@
+-- V6__Drop_Outbox_Default_Partition.sql
+-- Removes the default partition of the Order Service outbox (see OutboxPartitionManager)
+--
+-- A default partition blocks DETACH PARTITION ... CONCURRENTLY, so retention
+-- would need an ACCESS EXCLUSIVE lock on outbox_events, and any row it holds
+-- makes creating that row's daily partition fail. OutboxPartitionManager now
+-- always keeps the daily partitions ahead of time instead.
+
+-- ============================================================================
+-- DEFAULT PARTITION
+-- ============================================================================
+
+ALTER TABLE outbox_events DETACH PARTITION outbox_events_default;
+
+-- Daily partitions for whatever the default partition caught
+DO $$
+DECLARE
+    day date;
+BEGIN
+    FOR day IN
+        SELECT DISTINCT (created_at AT TIME ZONE 'UTC')::date FROM outbox_events_default
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+            'outbox_events_p' || to_char(day, 'YYYYMMDD'),
+            day::text || ' 00:00:00+00',
+            (day + 1)::text || ' 00:00:00+00');
+    END LOOP;
+END $$;
+
+INSERT INTO outbox_events
+SELECT * FROM outbox_events_default;
+
+DROP TABLE outbox_events_default;
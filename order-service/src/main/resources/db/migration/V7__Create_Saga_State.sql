@@ -0,0 +1,30 @@
+-- V7__Create_Saga_State.sql
+-- Open-saga index for the saga recovery scan (see SagaLog)
+
+-- ============================================================================
+-- SAGA_STATE
+-- ============================================================================
+
+-- One row per unfinished saga: opened by SAGA_STARTED, touched by every
+-- later transition, deleted by the terminal one. The recovery scan reads
+-- this table instead of every SAGA_STARTED row of saga_log.
+CREATE TABLE IF NOT EXISTS saga_state (
+    saga_id   UUID         PRIMARY KEY,
+    saga_type VARCHAR(100) NOT NULL,
+    last_seen TIMESTAMP    NOT NULL
+);
+
+-- Recovery scan: least recently active sagas first
+CREATE INDEX IF NOT EXISTS idx_saga_state_last_seen
+    ON saga_state (last_seen);
+
+-- Sagas already open when this runs
+INSERT INTO saga_state (saga_id, saga_type, last_seen)
+SELECT saga_id, min(saga_type), max(recorded_at)
+FROM saga_log
+GROUP BY saga_id
+HAVING bool_and(transition NOT IN ('SAGA_COMPLETED', 'SAGA_COMPENSATED', 'SAGA_FAILED'))
+ON CONFLICT (saga_id) DO NOTHING;
+
+-- The recovery scan no longer reads started sagas from saga_log
+DROP INDEX IF EXISTS idx_saga_log_started;
@@ -4,7 +4,6 @@ import java.security.SecureRandom;
 import java.util.Optional;
 import java.util.UUID;
 
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +14,7 @@ import com.ecommerce.payment.entity.PaymentStatus;
 import com.ecommerce.payment.event.PaymentProcessedEvent;
 import com.ecommerce.payment.repository.PaymentRepository;
 import com.ecommerce.payment.service.PaymentService;
+import com.ecommerce.shared.outbox.OutboxEventPublisher;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,12 +24,18 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
 
-    private static final String PAYMENT_EVENTS_TOPIC = "payment-events";
+    // Outbox aggregate type, routed to the "payment-events" topic
+    private static final String PAYMENT_AGGREGATE_TYPE = "Payment";
 
     private final PaymentRepository paymentRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventPublisher outboxEventPublisher;
     private final SecureRandom random = new SecureRandom();
 
+    /**
+     * Process a payment and record the PaymentProcessed event in the outbox.
+     * The event is committed atomically with the payment and published by the
+     * outbox poller, so this path never waits on Kafka.
+     */
     @Transactional
     public PaymentResponse processPayment(ProcessPaymentRequest request) {
         log.info("Processing payment for order: {}, amount: {}", request.getOrderId(), request.getAmount());
@@ -50,21 +56,25 @@ public class PaymentServiceImpl implements PaymentService {
             savedPayment.setTransactionId(UUID.randomUUID().toString());
         }
 
-        Payment updatedPayment = paymentRepository.save(savedPayment);
-        log.info("Payment {} processed with status: {}", updatedPayment.getId(), paymentStatus);
+        // savedPayment is managed, so the status change is flushed on commit
+        log.info("Payment {} processed with status: {}", savedPayment.getId(), paymentStatus);
 
         PaymentProcessedEvent event = new PaymentProcessedEvent(
-                updatedPayment.getOrderId(),
-                updatedPayment.getId(),
+                savedPayment.getOrderId(),
+                savedPayment.getId(),
                 paymentStatus,
-                updatedPayment.getTransactionId(),
-                updatedPayment.getAmount(),
-                updatedPayment.getUserEmail());
-
-        kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, event);
-        log.info("PaymentProcessedEvent published to Kafka for order: {}", request.getOrderId());
-
-        return mapToResponse(updatedPayment);
+                savedPayment.getTransactionId(),
+                savedPayment.getAmount(),
+                savedPayment.getUserEmail());
+
+        outboxEventPublisher.publish(
+                PAYMENT_AGGREGATE_TYPE,
+                savedPayment.getId().toString(),
+                "PaymentProcessed",
+                event);
+        log.info("PaymentProcessedEvent stored in outbox for order: {}", request.getOrderId());
+
+        return mapToResponse(savedPayment);
     }
 
     public PaymentStatus simulatePaymentProcessing() {
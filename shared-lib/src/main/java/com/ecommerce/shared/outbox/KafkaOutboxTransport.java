@@ -0,0 +1,78 @@
+package com.ecommerce.shared.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Kafka implementation of the outbox transport.
+ * 
+ * - Topic is derived from the aggregate type ("Order" -> "order-events")
+ * - Aggregate ID is used as the record key, so events of one aggregate share a partition
+ * - The value is the stored payload bytes, sent without re-encoding
+ * - Content type, event type, version, outbox ID and metadata travel as record headers
+ * - Dead letters go to "<topic>.dlq" with the same headers
+ * 
+ * The template must use a byte[] value serializer; OutboxAutoConfiguration
+ * derives one from the service's producer factory.
+ */
+@RequiredArgsConstructor
+public class KafkaOutboxTransport implements OutboxTransport, DisposableBean {
+    
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @Override
+    public CompletableFuture<?> send(OutboxEvent event) {
+        return kafkaTemplate.send(buildRecord(determineTopic(event), event));
+    }
+    
+    @Override
+    public CompletableFuture<?> sendToDeadLetter(OutboxEvent event) {
+        return kafkaTemplate.send(buildRecord(determineTopic(event) + ".dlq", event));
+    }
+    
+    @Override
+    public void flush() {
+        // Push out anything still sitting in the producer's linger buffer
+        kafkaTemplate.flush();
+    }
+    
+    /**
+     * Close the template's producers if it owns a derived producer factory.
+     */
+    @Override
+    public void destroy() {
+        kafkaTemplate.destroy();
+    }
+    
+    /**
+     * Build the producer record for an event, with tracing and metadata headers.
+     */
+    private ProducerRecord<String, byte[]> buildRecord(String topic, OutboxEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+            topic, event.getAggregateId(), event.encodedPayload());
+        
+        if (event.getMetadata() != null) {
+            record.headers().add("metadata", event.getMetadata().getBytes(StandardCharsets.UTF_8));
+        }
+        record.headers().add("contentType", event.getContentType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", event.getEventType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventVersion", event.getEventVersion().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("outboxEventId", event.getId().toString().getBytes(StandardCharsets.UTF_8));
+        
+        return record;
+    }
+    
+    /**
+     * Determine the Kafka topic from the aggregate type.
+     */
+    private String determineTopic(OutboxEvent event) {
+        // Convert aggregate type to topic name
+        // e.g., "Order" -> "order-events"
+        return event.getAggregateType().toLowerCase() + "-events";
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.shared.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Auto-configuration for the transactional outbox.
+ * 
+ * A service depending on shared-lib that sets outbox.enabled=true gets the
+ * outbox entity and repository, the publisher, the poller and (when Kafka is
+ * on the classpath) the Kafka transport. Every bean backs off if the service
+ * declares its own.
+ * 
+ * Requirements on the service:
+ * - An outbox_events table (see the user-service / order-service migrations)
+ * - @EnableScheduling, so the poller and maintenance jobs run
+ * 
+ * Opt-in, so services that only use shared-lib's other classes get no
+ * outbox table, poller or scheduled jobs.
+ */
+@AutoConfiguration(before = {HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+@AutoConfigurationPackage(basePackageClasses = OutboxEvent.class)
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxAutoConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxEventPublisher outboxEventPublisher(OutboxEventRepository outboxRepository,
+                                                     ObjectMapper objectMapper,
+                                                     ApplicationEventPublisher eventPublisher) {
+        return new OutboxEventPublisher(outboxRepository, objectMapper, eventPublisher);
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxPoller outboxPoller(OutboxEventRepository outboxRepository,
+                                     OutboxTransport transport,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectProvider<OutboxPartitionManager> partitionManager) {
+        return new OutboxPoller(
+            outboxRepository,
+            transport,
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+            new TransactionTemplate(transactionManager),
+            partitionManager.getIfAvailable());
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxPartitionManager outboxPartitionManager(JdbcTemplate jdbcTemplate) {
+        return new OutboxPartitionManager(jdbcTemplate);
+    }
+    
+    /**
+     * Default transport, publishing to Kafka.
+     * 
+     * Uses its own template over the service's producer factory with the value
+     * serializer overridden to bytes, so stored payloads go out untouched whatever
+     * serializer the service configured for its other producers.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(KafkaTemplate.class)
+    static class KafkaTransportConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean(OutboxTransport.class)
+        public OutboxTransport kafkaOutboxTransport(ProducerFactory<String, byte[]> producerFactory) {
+            KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+            return new KafkaOutboxTransport(kafkaTemplate);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.shared.outbox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wire encodings for outbox payloads.
+ * 
+ * The encoding is chosen once by OutboxEventPublisher, stored with the row
+ * (content_type) and sent unchanged as the "contentType" record header, so
+ * consumers know how to decode the value:
+ * 
+ * - application/json: UTF-8 JSON, stored in the payload TEXT column
+ * - application/json+gzip: gzip-compressed UTF-8 JSON, stored in payload_bytes
+ * 
+ * Consumers reading raw bytes can use {@link #fromContentType(String)} and
+ * {@link #decode(byte[])} to get back the JSON document.
+ */
+public enum OutboxEncoding {
+
+    JSON("application/json"),
+    JSON_GZIP("application/json+gzip");
+
+    private final String contentType;
+
+    OutboxEncoding(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Whether payloads in this encoding are stored as bytes rather than TEXT.
+     */
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * Encode serialized JSON for storage and transport.
+     */
+    public byte[] encode(byte[] json) {
+        if (this == JSON) {
+            return json;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress outbox payload", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a record value back to UTF-8 JSON bytes.
+     */
+    public byte[] decode(byte[] value) {
+        if (this == JSON) {
+            return value;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(value))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress outbox payload", e);
+        }
+    }
+
+    /**
+     * Resolve the encoding from a content type; rows and records without one are JSON.
+     */
+    public static OutboxEncoding fromContentType(String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        for (OutboxEncoding encoding : values()) {
+            if (encoding.contentType.equals(contentType)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown outbox content type: " + contentType);
+    }
+}
@@ -1,4 +1,4 @@
-package com.ecommerce.order.outbox;
+package com.ecommerce.shared.outbox;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,6 +10,7 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -19,11 +20,19 @@ import java.util.UUID;
  * The Outbox Pattern ensures that database changes and event publishing
  * are atomic - either both succeed or both fail. This prevents the
  * dual-write problem where a DB transaction commits but the event fails to publish.
+ * 
+ * Shared by every service using the outbox auto-configuration. Each service owns
+ * its own outbox_events table; the poller's hot query is served by the partial
+ * index idx_outbox_pending (created_at WHERE processed = false), which each
+ * service creates in a migration since JPA index annotations cannot express it.
+ * 
+ * JSON payloads are stored in payload (TEXT); binary encodings (see OutboxEncoding)
+ * are stored in payload_bytes, with content_type telling them apart.
  */
 @Entity
 @Table(name = "outbox_events", indexes = {
-    @Index(name = "idx_outbox_processed", columnList = "processed"),
-    @Index(name = "idx_outbox_created", columnList = "createdAt")
+    @Index(name = "idx_outbox_created", columnList = "created_at"),
+    @Index(name = "idx_outbox_aggregate", columnList = "aggregate_type, aggregate_id")
 })
 @Data
 @Builder
@@ -32,50 +41,68 @@ import java.util.UUID;
 public class OutboxEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
     private UUID id;
     
-    @Column(nullable = false, length = 255)
+    @Column(name = "aggregate_type", nullable = false, length = 255)
     private String aggregateType;
     
-    @Column(nullable = false, length = 255)
+    @Column(name = "aggregate_id", nullable = false, length = 255)
     private String aggregateId;
     
-    @Column(nullable = false, length = 255)
+    @Column(name = "event_type", nullable = false, length = 255)
     private String eventType;
     
-    @Column(nullable = false, length = 50)
-    private String eventVersion;
+    @Column(name = "event_version", nullable = false, length = 50)
+    @Builder.Default
+    private String eventVersion = "1.0";
     
     @Lob
     @JdbcTypeCode(SqlTypes.LONGVARCHAR)
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(name = "payload", columnDefinition = "TEXT")
     private String payload;
     
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "payload_bytes", columnDefinition = "BYTEA")
+    private byte[] payloadBytes;
+    
+    @Column(name = "content_type", nullable = false, length = 100)
+    @Builder.Default
+    private String contentType = OutboxEncoding.JSON.contentType();
+    
     @JdbcTypeCode(SqlTypes.LONGVARCHAR)
-    @Column(columnDefinition = "TEXT")
+    @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
     
-    @Column(nullable = false)
+    @Column(name = "processed", nullable = false)
     @Builder.Default
     private boolean processed = false;
     
-    @Column
+    @Column(name = "processed_at")
     private Instant processedAt;
     
-    @Column(length = 500)
+    @Column(name = "error_message", length = 1000)
     private String errorMessage;
     
-    @Column(nullable = false)
+    @Column(name = "retry_count", nullable = false)
     @Builder.Default
     private int retryCount = 0;
     
     @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
     
     @UpdateTimestamp
+    @Column(name = "updated_at")
     private Instant updatedAt;
     
+    /**
+     * The payload exactly as it goes on the wire, encoded per contentType.
+     */
+    public byte[] encodedPayload() {
+        return payloadBytes != null ? payloadBytes : payload.getBytes(StandardCharsets.UTF_8);
+    }
+    
     /**
      * Marks the event as successfully processed.
      */
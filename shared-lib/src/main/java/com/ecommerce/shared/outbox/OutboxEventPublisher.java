@@ -1,13 +1,15 @@
-package com.ecommerce.order.outbox;
+package com.ecommerce.shared.outbox;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
@@ -21,14 +23,31 @@ import java.util.UUID;
  * 
  * This ensures atomicity: either both the business data and the event are saved,
  * or neither is saved. No more orphaned records or lost events.
+ * 
+ * Every stored event is also announced as an OutboxEventStored application event,
+ * which wakes the poller once the surrounding transaction commits.
+ * 
+ * Payload encoding (outbox.encoding.compression-enabled):
+ * Payloads of at least outbox.encoding.compression-threshold-bytes are stored
+ * gzip-compressed in payload_bytes and published as-is with contentType
+ * application/json+gzip; smaller ones stay plain JSON, where compression
+ * would not pay for itself.
+ * 
+ * Registered by OutboxAutoConfiguration.
  */
 @Slf4j
-@Component
 @RequiredArgsConstructor
 public class OutboxEventPublisher {
     
     private final OutboxEventRepository outboxRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    
+    @Value("${outbox.encoding.compression-enabled:false}")
+    private boolean compressionEnabled;
+    
+    @Value("${outbox.encoding.compression-threshold-bytes:1024}")
+    private int compressionThresholdBytes;
     
     /**
      * Publish an event using the Outbox Pattern.
@@ -61,7 +80,10 @@ public class OutboxEventPublisher {
             Map<String, String> metadata) {
         
         try {
-            String payloadJson = objectMapper.writeValueAsString(payload);
+            byte[] payloadJson = objectMapper.writeValueAsBytes(payload);
+            OutboxEncoding encoding = compressionEnabled && payloadJson.length >= compressionThresholdBytes
+                ? OutboxEncoding.JSON_GZIP
+                : OutboxEncoding.JSON;
             String metadataJson = metadata != null ? objectMapper.writeValueAsString(metadata) : null;
             
             OutboxEvent event = OutboxEvent.builder()
@@ -70,13 +92,17 @@ public class OutboxEventPublisher {
                 .aggregateId(aggregateId)
                 .eventType(eventType)
                 .eventVersion(eventVersion)
-                .payload(payloadJson)
+                .payload(encoding.isBinary() ? null : new String(payloadJson, StandardCharsets.UTF_8))
+                .payloadBytes(encoding.isBinary() ? encoding.encode(payloadJson) : null)
+                .contentType(encoding.contentType())
                 .metadata(metadataJson)
                 .processed(false)
                 .retryCount(0)
                 .build();
             
             OutboxEvent saved = outboxRepository.save(event);
+            applicationEventPublisher.publishEvent(
+                new OutboxEventStored(aggregateType, aggregateId, eventType));
             
             log.debug("Event saved to outbox: {} - {} - {}", 
                 aggregateType, eventType, aggregateId);
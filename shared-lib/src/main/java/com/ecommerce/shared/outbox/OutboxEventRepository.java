@@ -0,0 +1,178 @@
+package com.ecommerce.shared.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for OutboxEvent entities.
+ * Provides methods for querying and managing outbox events.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+    
+    /**
+     * Find all unprocessed events ordered by creation time.
+     * Used by the poller to get events to publish.
+     */
+    List<OutboxEvent> findByProcessedFalseOrderByCreatedAtAsc();
+    
+    /**
+     * Find unprocessed events with pagination.
+     */
+    List<OutboxEvent> findByProcessedFalseOrderByCreatedAtAsc(Pageable pageable);
+    
+    /**
+     * Find the next unprocessed events as narrow summaries, oldest first.
+     * Served by the partial index idx_outbox_pending, so the cost depends on the
+     * batch size and not on how much processed history the table holds.
+     */
+    @Query("SELECT o.id AS id, o.aggregateType AS aggregateType, o.aggregateId AS aggregateId, " +
+           "o.eventType AS eventType, o.retryCount AS retryCount, o.createdAt AS createdAt " +
+           "FROM OutboxEvent o WHERE o.processed = false ORDER BY o.createdAt ASC")
+    List<OutboxEventSummary> findPendingSummaries(Pageable pageable);
+    
+    /**
+     * Same as findPendingSummaries(Pageable), for the partitioned table.
+     * The createdAt lower bound only lets PostgreSQL prune old daily partitions;
+     * it must not be later than the oldest pending event
+     * (see OutboxPartitionManager.getPendingLowerBound).
+     */
+    @Query("SELECT o.id AS id, o.aggregateType AS aggregateType, o.aggregateId AS aggregateId, " +
+           "o.eventType AS eventType, o.retryCount AS retryCount, o.createdAt AS createdAt " +
+           "FROM OutboxEvent o WHERE o.processed = false AND o.createdAt >= :since ORDER BY o.createdAt ASC")
+    List<OutboxEventSummary> findPendingSummaries(@Param("since") Instant since, Pageable pageable);
+    
+    /**
+     * Claim a batch of unprocessed events for this poller instance.
+     * 
+     * Safe to run from several replicas at once:
+     * - pg_try_advisory_xact_lock claims the whole aggregate, so every event of an
+     *   aggregate goes to the same poller and keeps its created_at order
+     * - FOR UPDATE SKIP LOCKED skips rows another poller is already publishing and
+     *   re-checks processed=false against rows committed since the scan started
+     * 
+     * Candidates are the aggregates of the oldest :scanSize pending rows (the
+     * MATERIALIZED candidates CTE, a window several batches wide), in order of
+     * their oldest pending event. The advisory locks are tried along that order
+     * and the LIMIT applies to the aggregates actually locked: an aggregate
+     * another poller holds is skipped and the scan moves on to the next one, so
+     * concurrent replicas claim disjoint aggregates from the same window instead
+     * of all but one coming back empty. One poll takes at most :batchSize locks.
+     * 
+     * Both locks are held until the poll transaction commits, so this must be
+     * called from the transaction that also marks the events processed.
+     * Only the narrow summary columns are returned; payloads are loaded by id
+     * for the claimed rows.
+     */
+    @Query(value = "WITH candidates AS MATERIALIZED (" +
+                   "SELECT p.aggregate_type, p.aggregate_id FROM (" +
+                   "SELECT aggregate_type, aggregate_id, created_at FROM outbox_events " +
+                   "WHERE processed = false " +
+                   "ORDER BY created_at ASC LIMIT :scanSize) p " +
+                   "GROUP BY p.aggregate_type, p.aggregate_id ORDER BY min(p.created_at)), " +
+                   "claimed AS MATERIALIZED (" +
+                   "SELECT aggregate_type, aggregate_id FROM candidates " +
+                   "WHERE pg_try_advisory_xact_lock(hashtext(aggregate_type || ':' || aggregate_id)) " +
+                   "LIMIT :batchSize) " +
+                   "SELECT o.id AS \"id\", o.aggregate_type AS \"aggregateType\", " +
+                   "o.aggregate_id AS \"aggregateId\", o.event_type AS \"eventType\", " +
+                   "o.retry_count AS \"retryCount\", o.created_at AS \"createdAt\" " +
+                   "FROM outbox_events o JOIN claimed c " +
+                   "ON c.aggregate_type = o.aggregate_type AND c.aggregate_id = o.aggregate_id " +
+                   "WHERE o.processed = false " +
+                   "ORDER BY o.created_at ASC LIMIT :batchSize FOR UPDATE OF o SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEventSummary> claimBatch(@Param("scanSize") int scanSize, @Param("batchSize") int batchSize);
+    
+    /**
+     * Same as claimBatch(int, int), for the partitioned table.
+     * The created_at lower bound only lets PostgreSQL prune old daily partitions;
+     * it must not be later than the oldest pending event
+     * (see OutboxPartitionManager.getPendingLowerBound).
+     */
+    @Query(value = "WITH candidates AS MATERIALIZED (" +
+                   "SELECT p.aggregate_type, p.aggregate_id FROM (" +
+                   "SELECT aggregate_type, aggregate_id, created_at FROM outbox_events " +
+                   "WHERE processed = false AND created_at >= :since " +
+                   "ORDER BY created_at ASC LIMIT :scanSize) p " +
+                   "GROUP BY p.aggregate_type, p.aggregate_id ORDER BY min(p.created_at)), " +
+                   "claimed AS MATERIALIZED (" +
+                   "SELECT aggregate_type, aggregate_id FROM candidates " +
+                   "WHERE pg_try_advisory_xact_lock(hashtext(aggregate_type || ':' || aggregate_id)) " +
+                   "LIMIT :batchSize) " +
+                   "SELECT o.id AS \"id\", o.aggregate_type AS \"aggregateType\", " +
+                   "o.aggregate_id AS \"aggregateId\", o.event_type AS \"eventType\", " +
+                   "o.retry_count AS \"retryCount\", o.created_at AS \"createdAt\" " +
+                   "FROM outbox_events o JOIN claimed c " +
+                   "ON c.aggregate_type = o.aggregate_type AND c.aggregate_id = o.aggregate_id " +
+                   "WHERE o.processed = false AND o.created_at >= :since " +
+                   "ORDER BY o.created_at ASC LIMIT :batchSize FOR UPDATE OF o SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEventSummary> claimBatch(@Param("since") Instant since, @Param("scanSize") int scanSize,
+                                        @Param("batchSize") int batchSize);
+    
+    /**
+     * Find events by aggregate type and ID.
+     */
+    List<OutboxEvent> findByAggregateTypeAndAggregateId(String aggregateType, String aggregateId);
+    
+    /**
+     * Find specific event by aggregate details.
+     */
+    Optional<OutboxEvent> findByAggregateTypeAndAggregateIdAndEventType(
+        String aggregateType, 
+        String aggregateId, 
+        String eventType
+    );
+    
+    /**
+     * Count unprocessed events.
+     */
+    long countByProcessedFalse();
+    
+    /**
+     * Count failed events (high retry count).
+     */
+    @Query("SELECT COUNT(o) FROM OutboxEvent o WHERE o.processed = false AND o.retryCount >= :maxRetries")
+    long countFailedEvents(@Param("maxRetries") int maxRetries);
+    
+    /**
+     * Mark a batch of events as processed in a single statement.
+     * Used by the batch poller once every record in the batch has been acked.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OutboxEvent o SET o.processed = true, o.processedAt = :processedAt, " +
+           "o.updatedAt = :processedAt, o.errorMessage = null WHERE o.id IN :ids")
+    int markProcessed(@Param("ids") Collection<UUID> ids, @Param("processedAt") Instant processedAt);
+    
+    /**
+     * Delete old processed events.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.processed = true AND o.processedAt < :cutoffDate")
+    int deleteOldProcessedEvents(@Param("cutoffDate") Instant cutoffDate);
+    
+    /**
+     * Find events that have been stuck for a long time.
+     */
+    @Query("SELECT o FROM OutboxEvent o WHERE o.processed = false AND o.createdAt < :cutoffDate ORDER BY o.createdAt ASC")
+    List<OutboxEvent> findStuckEvents(@Param("cutoffDate") Instant cutoffDate);
+    
+    /**
+     * Find stuck events as narrow summaries (no payload), oldest first, for alerting.
+     */
+    @Query("SELECT o.id AS id, o.aggregateType AS aggregateType, o.aggregateId AS aggregateId, " +
+           "o.eventType AS eventType, o.retryCount AS retryCount, o.createdAt AS createdAt " +
+           "FROM OutboxEvent o WHERE o.processed = false AND o.createdAt < :cutoffDate ORDER BY o.createdAt ASC")
+    List<OutboxEventSummary> findStuckEventSummaries(@Param("cutoffDate") Instant cutoffDate, Pageable pageable);
+}
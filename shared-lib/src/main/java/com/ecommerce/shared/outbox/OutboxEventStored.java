@@ -0,0 +1,10 @@
+package com.ecommerce.shared.outbox;
+
+/**
+ * Application event announcing that an outbox event was written.
+ * 
+ * Published by OutboxEventPublisher inside the business transaction and
+ * consumed by OutboxPoller after that transaction commits, so the poller
+ * can publish right away instead of waiting for its next scheduled poll.
+ */
+public record OutboxEventStored(String aggregateType, String aggregateId, String eventType) {}
@@ -0,0 +1,25 @@
+package com.ecommerce.shared.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Narrow projection of an outbox event without the TEXT payload/metadata columns.
+ * 
+ * Every column is part of idx_outbox_pending (key or INCLUDE), so scans that only
+ * need this projection can be served as index-only scans of the pending rows.
+ */
+public interface OutboxEventSummary {
+    
+    UUID getId();
+    
+    String getAggregateType();
+    
+    String getAggregateId();
+    
+    String getEventType();
+    
+    int getRetryCount();
+    
+    Instant getCreatedAt();
+}
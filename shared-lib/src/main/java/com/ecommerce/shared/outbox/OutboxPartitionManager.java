@@ -0,0 +1,271 @@
+package com.ecommerce.shared.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Maintains the daily range partitions of the outbox_events table.
+ * 
+ * The table is partitioned by created_at (see each service's
+ * V3__Partition_Outbox_Events.sql migration), one partition per UTC day, named
+ * outbox_events_pYYYYMMDD. There is no default partition (dropped by
+ * V6__Drop_Outbox_Default_Partition.sql): it would block DETACH ... CONCURRENTLY
+ * and hold rows that later conflict with creating their day's partition.
+ * 
+ * Responsibilities:
+ * - Pre-create partitions for today and outbox.partitioning.days-ahead days,
+ *   at startup and daily. Without a default partition an insert for a missing
+ *   day fails, so this must run wherever the table is partitioned
+ * - Retention: detach and drop whole partitions older than
+ *   outbox.poller.delete-after-days, replacing the bulk DELETE. Dropping a
+ *   partition is a catalog operation: no long transaction, no WAL per row, no bloat.
+ *   Partitions are detached CONCURRENTLY, so inserts and the poller's scans
+ *   are never blocked behind an ACCESS EXCLUSIVE lock on the parent
+ * 
+ * A partition that still holds unprocessed events is never dropped; it is kept
+ * and reported until those events are published or handled manually.
+ * 
+ * Pending lower bound:
+ * The poller scans with a created_at lower bound so PostgreSQL can prune the
+ * partitions that hold only processed history. The bound is the start of the
+ * oldest partition that still holds unprocessed events, and never later than
+ * yesterday. Events are written with the current time, so a bound computed
+ * earlier can only be too low, never too high: no unprocessed event is ever
+ * hidden from the poller.
+ * 
+ * Registered by OutboxAutoConfiguration whenever the outbox is enabled. It checks
+ * the catalog for a partitioned outbox_events table and does nothing otherwise,
+ * so maintenance follows the migrations rather than a flag.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPartitionManager {
+    
+    private static final String PARENT_TABLE = "outbox_events";
+    private static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${outbox.partitioning.days-ahead:7}")
+    private int daysAhead;
+    
+    @Value("${outbox.poller.delete-after-days:7}")
+    private int deleteAfterDays;
+    
+    /**
+     * Lowest created_at an unprocessed event can have, null until first computed.
+     */
+    private volatile Instant pendingLowerBound;
+    
+    /**
+     * Whether outbox_events is partitioned, null until the catalog could be read.
+     */
+    private volatile Boolean partitioned;
+    
+    /**
+     * Make sure upcoming partitions exist before the first event is written.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createUpcomingPartitions();
+        refreshPendingLowerBound();
+    }
+    
+    /**
+     * Whether outbox_events is partitioned, checked once in the catalog.
+     * Reported as false while the catalog cannot be read, and checked again next time.
+     */
+    public boolean isPartitioned() {
+        Boolean known = partitioned;
+        if (known == null) {
+            try {
+                known = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table t " +
+                    "JOIN pg_class c ON c.oid = t.partrelid WHERE c.relname = ?)",
+                    Boolean.class, PARENT_TABLE);
+                partitioned = known;
+                log.info("Outbox table {} partitioned: {}", PARENT_TABLE, known);
+            } catch (Exception e) {
+                log.error("Failed to check whether {} is partitioned: {}", PARENT_TABLE, e.getMessage());
+                return false;
+            }
+        }
+        return Boolean.TRUE.equals(known);
+    }
+    
+    /**
+     * Lower created_at bound for the poller's scans, null while unknown or when
+     * the table is not partitioned (the poller then scans without a bound).
+     */
+    public Instant getPendingLowerBound() {
+        return pendingLowerBound;
+    }
+    
+    /**
+     * Create partitions for today and the configured number of days ahead.
+     * Runs daily; CREATE TABLE IF NOT EXISTS makes it idempotent across replicas.
+     */
+    @Scheduled(cron = "0 30 1 * * ?") // 1:30 AM daily
+    public void createUpcomingPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s " +
+                    "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                    partitionName(day), PARENT_TABLE, day, day.plusDays(1)));
+            } catch (Exception e) {
+                log.error("Failed to create outbox partition for {}: {}", day, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Drop partitions whose whole day is older than the retention window.
+     * 
+     * DETACH PARTITION ... CONCURRENTLY cannot run inside a transaction block,
+     * so this must not be called from one. A detach that was interrupted leaves
+     * its partition pending detach; the next run finalizes and drops it.
+     */
+    @Scheduled(cron = "0 0 2 * * ?") // 2 AM daily
+    public void dropExpiredPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        
+        for (String partition : listPendingDetaches()) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition + " FINALIZE");
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Finalized the interrupted detach of outbox partition {}", partition);
+            } catch (Exception e) {
+                log.error("Failed to finalize the detach of outbox partition {}: {}", partition, e.getMessage());
+            }
+        }
+        
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(deleteAfterDays);
+        int dropped = 0;
+        
+        for (String partition : listPartitions()) {
+            LocalDate day = parseDay(partition);
+            if (day == null || !day.isBefore(cutoff)) {
+                continue;
+            }
+            
+            Boolean hasPending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE processed = false)",
+                Boolean.class);
+            if (Boolean.TRUE.equals(hasPending)) {
+                log.warn("Keeping outbox partition {}: it still holds unprocessed events", partition);
+                continue;
+            }
+            
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition + " CONCURRENTLY");
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                dropped++;
+            } catch (Exception e) {
+                log.error("Failed to drop outbox partition {}: {}", partition, e.getMessage());
+            }
+        }
+        
+        if (dropped > 0) {
+            log.info("Dropped {} expired outbox partitions", dropped);
+        }
+        
+        refreshPendingLowerBound();
+    }
+    
+    /**
+     * Recompute the pending lower bound from the partitions' contents.
+     * One EXISTS probe per partition, served by the pending partial index.
+     */
+    @Scheduled(fixedDelayString = "${outbox.partitioning.bound-refresh-ms:900000}",
+               initialDelayString = "${outbox.partitioning.bound-refresh-ms:900000}")
+    public void refreshPendingLowerBound() {
+        if (!isPartitioned()) {
+            pendingLowerBound = null;
+            return;
+        }
+        
+        try {
+            Instant bound = LocalDate.now(ZoneOffset.UTC).minusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            
+            for (String partition : listPartitions()) {
+                LocalDate day = parseDay(partition);
+                if (day == null || !day.atStartOfDay(ZoneOffset.UTC).toInstant().isBefore(bound)) {
+                    continue;
+                }
+                Boolean hasPending = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE processed = false)",
+                    Boolean.class);
+                if (Boolean.TRUE.equals(hasPending)) {
+                    // Partitions are listed oldest first
+                    bound = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+                    break;
+                }
+            }
+            
+            pendingLowerBound = bound;
+        } catch (Exception e) {
+            // Fall back to unbounded scans rather than risk hiding events
+            pendingLowerBound = null;
+            log.error("Failed to compute the outbox pending lower bound: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * List the daily partitions currently attached to the outbox table.
+     */
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? AND c.relname LIKE ? ORDER BY c.relname",
+            String.class, PARENT_TABLE, PARTITION_PREFIX + "%");
+    }
+    
+    /**
+     * List partitions left pending detach by an interrupted DETACH ... CONCURRENTLY.
+     */
+    private List<String> listPendingDetaches() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? AND i.inhdetachpending",
+            String.class, PARENT_TABLE);
+    }
+    
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(SUFFIX_FORMAT);
+    }
+    
+    private LocalDate parseDay(String partition) {
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
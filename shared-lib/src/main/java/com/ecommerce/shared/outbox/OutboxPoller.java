@@ -0,0 +1,643 @@
+package com.ecommerce.shared.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Poller that reads events from the outbox table and publishes them through an OutboxTransport.
+ * 
+ * This runs as a background job, periodically checking for unprocessed events
+ * and handing them to the transport (Kafka by default). Once acknowledged, the
+ * event is marked as processed in the outbox table.
+ * 
+ * The poller handles:
+ * - Reading unprocessed events
+ * - Sending the whole page at once and awaiting acks together
+ * - Marking acked events processed with a single bulk UPDATE inside the poll transaction
+ * - Retry logic, with a retry count per event
+ * - Dead letter destination for events that fail permanently
+ * 
+ * Multi-instance draining (outbox.poller.claim-enabled):
+ * Events are claimed with OutboxEventRepository.claimBatch, which claims whole
+ * aggregates for the duration of the poll transaction. N replicas split the
+ * backlog without publishing duplicates, and per-aggregate order is kept. Each
+ * poll looks at a window of outbox.poller.claim-scan-factor batches and skips
+ * aggregates another replica holds, so the replicas drain side by side.
+ * 
+ * Parallel dispatch (outbox.poller.dispatch-workers):
+ * With more than one worker, each polled batch is split into lanes by aggregate
+ * (aggregate type and ID hash) and the lanes are sent concurrently from a bounded
+ * pool. Events of one aggregate always share a lane and are handed to the
+ * transport in created_at order, so per-aggregate order (the Kafka key) is kept
+ * while record building and sending use all cores during backlog recovery.
+ * Acks are still awaited and recorded by the poller thread.
+ * 
+ * Push-based wakeup (outbox.poller.wakeup-enabled):
+ * OutboxEventPublisher announces every stored event; once the writing transaction
+ * commits the poller is woken immediately instead of waiting for the next poll.
+ * The scheduled poll stays as a fallback for events written by other instances
+ * or signals lost to a crash, and can run far less often.
+ * 
+ * Scans see every unprocessed event, however old; retention never hides one.
+ * When outbox_events is partitioned they carry OutboxPartitionManager's pending
+ * lower bound, so only the partitions that can still hold unprocessed events
+ * are read, and retention is handled by dropping whole partitions instead of
+ * a bulk DELETE.
+ * 
+ * Metrics are maintained by the poller as it works, so scrapes and health probes
+ * never touch the table:
+ * - outbox.oldest.unprocessed.age: age of the oldest event this instance still sees pending
+ * - outbox.events.failing: events of the latest batch whose publish attempt failed,
+ *   usually transient (a broker blip fails a whole batch once)
+ * - outbox.events.exhausted: events of the latest batch that used up their retries,
+ *   i.e. were dead-lettered or are still failing past outbox.poller.max-retries
+ * - outbox.publish.ack.latency: send-to-ack latency per event (histogram)
+ * - outbox.batch.size: events per polled batch (histogram)
+ * - outbox.events.dead.lettered, outbox.events.retries: DLQ and retry rates
+ * 
+ * Registered by OutboxAutoConfiguration; the service must enable scheduling.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPoller {
+    
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxTransport transport;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * Null when the service registers its own poller without one.
+     */
+    private final OutboxPartitionManager partitionManager;
+    
+    @Value("${outbox.poller.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${outbox.poller.max-retries:3}")
+    private int maxRetries;
+    
+    @Value("${outbox.poller.delete-after-days:7}")
+    private int deleteAfterDays;
+    
+    @Value("${outbox.poller.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+    
+    @Value("${outbox.poller.claim-enabled:true}")
+    private boolean claimEnabled;
+    
+    @Value("${outbox.poller.claim-scan-factor:10}")
+    private int claimScanFactor;
+    
+    @Value("${outbox.poller.wakeup-enabled:false}")
+    private boolean wakeupEnabled;
+    
+    @Value("${outbox.poller.dispatch-workers:1}")
+    private int dispatchWorkers;
+    
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+    private final ExecutorService wakeupExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "outbox-wakeup");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    // Events older than this are reported by alertOnStuckEvents
+    private static final Duration STUCK_THRESHOLD = Duration.ofHours(1);
+    private static final int STUCK_ALERT_SAMPLE_SIZE = 20;
+    
+    /**
+     * Creation time of the oldest event left pending by the latest poll, null when drained.
+     */
+    private final AtomicReference<Instant> oldestPendingCreatedAt = new AtomicReference<>();
+    private final AtomicInteger failingEvents = new AtomicInteger();
+    private final AtomicInteger exhaustedEvents = new AtomicInteger();
+    
+    private ExecutorService dispatchExecutor;
+    
+    private Counter publishedCounter;
+    private Counter publishFailuresCounter;
+    private Counter deadLetteredCounter;
+    private Counter retriesCounter;
+    private Timer batchPublishTimer;
+    private Timer ackLatencyTimer;
+    private DistributionSummary batchSizeSummary;
+    
+    /**
+     * Register publish throughput and lag metrics.
+     * Events published per second is rate(outbox_events_published_total).
+     */
+    @PostConstruct
+    void initMetrics() {
+        this.publishedCounter = Counter.builder("outbox.events.published")
+            .description("Number of outbox events acknowledged by the broker")
+            .register(meterRegistry);
+        
+        this.publishFailuresCounter = Counter.builder("outbox.events.publish.failures")
+            .description("Number of outbox events that failed to publish")
+            .register(meterRegistry);
+        
+        this.batchPublishTimer = Timer.builder("outbox.batch.publish.duration")
+            .description("Time taken to send a batch and await all acks")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        
+        this.deadLetteredCounter = Counter.builder("outbox.events.dead.lettered")
+            .description("Number of outbox events moved to the dead letter destination")
+            .register(meterRegistry);
+        
+        this.retriesCounter = Counter.builder("outbox.events.retries")
+            .description("Number of publish attempts for events that failed before")
+            .register(meterRegistry);
+        
+        this.ackLatencyTimer = Timer.builder("outbox.publish.ack.latency")
+            .description("Time from handing an event to the transport until the broker ack")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        
+        this.batchSizeSummary = DistributionSummary.builder("outbox.batch.size")
+            .description("Number of events per polled batch")
+            .baseUnit("events")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        
+        TimeGauge.builder("outbox.oldest.unprocessed.age", this,
+                TimeUnit.MILLISECONDS, poller -> poller.oldestUnprocessedAge().toMillis())
+            .description("Age of the oldest outbox event still pending after the latest poll")
+            .register(meterRegistry);
+        
+        Gauge.builder("outbox.events.failing", failingEvents, AtomicInteger::get)
+            .description("Number of events of the latest batch whose publish attempt failed")
+            .register(meterRegistry);
+        
+        Gauge.builder("outbox.events.exhausted", exhaustedEvents, AtomicInteger::get)
+            .description("Number of events of the latest batch dead-lettered or failing past max retries")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Poll the outbox table for new events (every 100ms by default).
+     * This ensures low latency between event creation and publishing.
+     * 
+     * With wakeup enabled this is only the safety net, so outbox.poller.interval-ms
+     * can be raised to seconds and an idle instance barely touches the database.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poller.interval-ms:100}")
+    public void pollAndPublish() {
+        drain();
+    }
+    
+    /**
+     * Wake the poller as soon as a transaction that wrote outbox events commits.
+     * Runs on the committing thread, so it only hands off to the wakeup thread.
+     * Signals arriving while a wakeup is already queued are coalesced.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOutboxEventStored(OutboxEventStored event) {
+        if (!wakeupEnabled) {
+            return;
+        }
+        if (wakeupPending.compareAndSet(false, true)) {
+            wakeupExecutor.execute(() -> {
+                wakeupPending.set(false);
+                drain();
+            });
+        }
+    }
+    
+    /**
+     * Poll until the outbox is drained.
+     * 
+     * Only one drain runs at a time per instance. A request arriving while a drain
+     * is running makes that drain loop once more instead of starting a second one.
+     * Full batches are followed up immediately, since events are marked processed
+     * before the transaction commits.
+     */
+    private void drain() {
+        if (!drainLock.tryLock()) {
+            drainRequested.set(true);
+            return;
+        }
+        try {
+            Integer published;
+            do {
+                drainRequested.set(false);
+                published = transactionTemplate.execute(status -> pollOnce());
+            } while (published != null
+                && (published >= batchSize || drainRequested.get()));
+        } catch (Exception e) {
+            log.error("Error polling outbox", e);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+    
+    /**
+     * Fetch and publish one batch inside the current transaction.
+     * 
+     * @return number of events marked processed by this call
+     */
+    private int pollOnce() {
+        Instant since = partitionManager != null ? partitionManager.getPendingLowerBound() : null;
+        List<OutboxEventSummary> summaries;
+        if (since == null) {
+            summaries = claimEnabled
+                ? outboxRepository.claimBatch(batchSize * claimScanFactor, batchSize)
+                : outboxRepository.findPendingSummaries(Pageable.ofSize(batchSize));
+        } else {
+            summaries = claimEnabled
+                ? outboxRepository.claimBatch(since, batchSize * claimScanFactor, batchSize)
+                : outboxRepository.findPendingSummaries(since, Pageable.ofSize(batchSize));
+        }
+        
+        if (summaries.isEmpty()) {
+            oldestPendingCreatedAt.set(null);
+            failingEvents.set(0);
+            exhaustedEvents.set(0);
+            return 0;
+        }
+        
+        List<OutboxEvent> events = loadInOrder(summaries);
+        
+        log.debug("Processing {} events from outbox", events.size());
+        batchSizeSummary.record(events.size());
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int published = publishBatch(events);
+        sample.stop(batchPublishTimer);
+        return published;
+    }
+    
+    /**
+     * Load the full rows (including payload) for a scanned batch, keeping scan order.
+     * The ordered scan only touches the narrow pending index; payloads are read
+     * by primary key for exactly the rows in the batch.
+     */
+    private List<OutboxEvent> loadInOrder(List<OutboxEventSummary> summaries) {
+        List<UUID> ids = summaries.stream().map(OutboxEventSummary::getId).toList();
+        Map<UUID, OutboxEvent> byId = outboxRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+        
+        List<OutboxEvent> events = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            OutboxEvent event = byId.get(id);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+    
+    /**
+     * Start the dispatch pool when parallel dispatch is enabled.
+     */
+    @PostConstruct
+    void initDispatchExecutor() {
+        if (dispatchWorkers > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.dispatchExecutor = Executors.newFixedThreadPool(dispatchWorkers, r -> {
+                Thread t = new Thread(r, "outbox-dispatch-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+    
+    /**
+     * Stop the wakeup and dispatch threads; pending events are picked up after restart.
+     */
+    @PreDestroy
+    void shutdownWakeupExecutor() {
+        wakeupExecutor.shutdownNow();
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Publish a whole page of events and wait for all acks together.
+     * 
+     * Every event is handed to the transport before any ack is awaited, so the
+     * producer can pipeline them into as few broker requests as possible.
+     * All bookkeeping happens on the poller thread inside the poll transaction:
+     * acked events are marked processed with one bulk UPDATE, failed events
+     * get their retry count bumped.
+     * 
+     * Once an event fails, the later events of its aggregate in the batch are
+     * left pending as they were, even if their own send was acked: marking them
+     * processed would let them overtake the failed event, which is only retried
+     * by a later poll. They are sent again after it, so consumers may see them
+     * twice (at-least-once), but never out of order.
+     * 
+     * @return number of events marked processed
+     */
+    private int publishBatch(List<OutboxEvent> events) {
+        List<PendingSend> pending = dispatchExecutor != null
+            ? dispatchInLanes(events)
+            : sendAll(events);
+        
+        transport.flush();
+        awaitAcks(pending);
+        
+        List<UUID> processedIds = new ArrayList<>(pending.size());
+        List<OutboxEvent> failedEvents = new ArrayList<>();
+        Set<String> failedAggregates = new HashSet<>();
+        int heldBack = 0;
+        int exhausted = 0;
+        
+        // Lanes keep each aggregate's events in created_at order
+        for (PendingSend send : pending) {
+            if (failedAggregates.contains(aggregateKey(send.event()))) {
+                heldBack++;
+                continue;
+            }
+            String error = send.error();
+            if (error == null) {
+                processedIds.add(send.event().getId());
+                if (send.deadLetter()) {
+                    deadLetteredCounter.increment();
+                    exhausted++;
+                }
+            } else {
+                log.error("Failed to publish event {}: {}", send.event().getId(), error);
+                send.event().markFailed(error);
+                failedEvents.add(send.event());
+                failedAggregates.add(aggregateKey(send.event()));
+                if (!send.event().shouldRetry(maxRetries)) {
+                    exhausted++;
+                }
+            }
+        }
+        exhaustedEvents.set(exhausted);
+        
+        if (!failedEvents.isEmpty()) {
+            outboxRepository.saveAll(failedEvents);
+            publishFailuresCounter.increment(failedEvents.size());
+        }
+        
+        if (!processedIds.isEmpty()) {
+            outboxRepository.markProcessed(processedIds, Instant.now());
+            publishedCounter.increment(processedIds.size());
+        }
+        
+        trackPending(events, failedEvents);
+        
+        log.debug("Published batch of {} events ({} failed, {} held back behind a failure)",
+            processedIds.size(), failedEvents.size(), heldBack);
+        return processedIds.size();
+    }
+    
+    /**
+     * Hand events to the transport in order, without waiting for acks.
+     */
+    private List<PendingSend> sendAll(List<OutboxEvent> events) {
+        List<PendingSend> pending = new ArrayList<>(events.size());
+        
+        for (OutboxEvent event : events) {
+            try {
+                if (event.shouldRetry(maxRetries)) {
+                    if (event.getRetryCount() > 0) {
+                        retriesCounter.increment();
+                    }
+                    pending.add(new PendingSend(event, timeAck(transport.send(event)), false));
+                } else {
+                    log.error("Event {} exceeded max retries ({}). Sending to DLQ.", 
+                        event.getId(), maxRetries);
+                    pending.add(new PendingSend(event, timeAck(transport.sendToDeadLetter(event)), true));
+                }
+            } catch (Exception e) {
+                log.error("Error sending outbox event: {}", event.getId(), e);
+                pending.add(new PendingSend(event, CompletableFuture.failedFuture(e), false));
+            }
+        }
+        return pending;
+    }
+    
+    /**
+     * Split a batch into per-aggregate lanes and send the lanes concurrently.
+     * 
+     * Lanes keep the batch's created_at order, so each aggregate's events reach the
+     * transport in order from a single thread. Returns once every lane has handed
+     * its events to the transport; acks are awaited by the caller.
+     */
+    private List<PendingSend> dispatchInLanes(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> lanes = new ArrayList<>(dispatchWorkers);
+        for (int i = 0; i < dispatchWorkers; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (OutboxEvent event : events) {
+            lanes.get(Math.floorMod(aggregateKey(event).hashCode(), dispatchWorkers)).add(event);
+        }
+        
+        List<CompletableFuture<List<PendingSend>>> dispatched = lanes.stream()
+            .filter(lane -> !lane.isEmpty())
+            .map(lane -> CompletableFuture.supplyAsync(() -> sendAll(lane), dispatchExecutor))
+            .toList();
+        
+        List<PendingSend> pending = new ArrayList<>(events.size());
+        for (CompletableFuture<List<PendingSend>> lane : dispatched) {
+            pending.addAll(lane.join());
+        }
+        return pending;
+    }
+    
+    private static String aggregateKey(OutboxEvent event) {
+        return event.getAggregateType() + ":" + event.getAggregateId();
+    }
+    
+    /**
+     * Record per-event send-to-ack latency once the broker acknowledges.
+     */
+    private CompletableFuture<?> timeAck(CompletableFuture<?> future) {
+        long sentAt = System.nanoTime();
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                ackLatencyTimer.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Update the lag gauges after a batch.
+     * 
+     * Failed events stay pending, so the oldest failure is the oldest pending event.
+     * A full, fully published batch means more events are waiting; the next poll of
+     * the drain loop refines the value.
+     */
+    private void trackPending(List<OutboxEvent> events, List<OutboxEvent> failedEvents) {
+        failingEvents.set(failedEvents.size());
+        if (!failedEvents.isEmpty()) {
+            oldestPendingCreatedAt.set(failedEvents.stream()
+                .map(OutboxEvent::getCreatedAt)
+                .min(Instant::compareTo)
+                .orElseThrow());
+        } else if (events.size() >= batchSize) {
+            oldestPendingCreatedAt.set(events.get(events.size() - 1).getCreatedAt());
+        } else {
+            oldestPendingCreatedAt.set(null);
+        }
+    }
+    
+    /**
+     * Age of the oldest event left pending by the latest poll, zero when drained.
+     */
+    public Duration oldestUnprocessedAge() {
+        Instant oldest = oldestPendingCreatedAt.get();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, Instant.now());
+    }
+    
+    /**
+     * Wait until every send in the batch has completed or the ack timeout expires.
+     * Individual failures are inspected afterwards, so they are not rethrown here.
+     */
+    private void awaitAcks(List<PendingSend> pending) {
+        CompletableFuture<?>[] futures = pending.stream()
+            .map(PendingSend::future)
+            .toArray(CompletableFuture[]::new);
+        
+        try {
+            CompletableFuture.allOf(futures).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // At least one send failed; handled per event by the caller
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {}ms waiting for broker acks", ackTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for broker acks");
+        }
+    }
+    
+    /**
+     * Clean up old processed events daily.
+     * Keeps the outbox table from growing indefinitely.
+     * Skipped when the table is partitioned; OutboxPartitionManager drops
+     * expired partitions instead.
+     */
+    @Scheduled(cron = "0 0 2 * * ?") // 2 AM daily
+    @Transactional
+    public void cleanupOldEvents() {
+        if (partitionManager != null && partitionManager.isPartitioned()) {
+            return;
+        }
+        
+        Instant cutoffDate = Instant.now().minus(deleteAfterDays, ChronoUnit.DAYS);
+        
+        int deleted = outboxRepository.deleteOldProcessedEvents(cutoffDate);
+        
+        if (deleted > 0) {
+            log.info("Cleaned up {} old processed outbox events", deleted);
+        }
+    }
+    
+    /**
+     * Alert on stuck events (events that haven't been processed for a long time).
+     * Run every 15 minutes.
+     * 
+     * Driven by the oldest-unprocessed-age gauge; the table is only read, for a
+     * small sample of stuck events, when the gauge is over the threshold.
+     */
+    @Scheduled(fixedDelay = 900000) // 15 minutes
+    public void alertOnStuckEvents() {
+        Duration oldestAge = oldestUnprocessedAge();
+        if (oldestAge.compareTo(STUCK_THRESHOLD) < 0) {
+            return;
+        }
+        
+        Instant cutoffDate = Instant.now().minus(STUCK_THRESHOLD);
+        List<OutboxEventSummary> stuckEvents = outboxRepository.findStuckEventSummaries(
+            cutoffDate, Pageable.ofSize(STUCK_ALERT_SAMPLE_SIZE));
+        
+        log.error("ALERT: oldest unprocessed outbox event is {} old, {} events currently failing",
+            oldestAge, failingEvents.get());
+        
+        for (OutboxEventSummary event : stuckEvents) {
+            log.error("Stuck event: {} - {} - {} - Retry count: {}",
+                event.getId(),
+                event.getEventType(),
+                event.getAggregateId(),
+                event.getRetryCount());
+        }
+        
+        // Here you would send an alert to PagerDuty/Slack
+    }
+    
+    /**
+     * Get metrics about the outbox.
+     * Served from the poller's in-memory state, so it is cheap enough for every health probe.
+     */
+    public OutboxMetrics getMetrics() {
+        return new OutboxMetrics(oldestUnprocessedAge(), failingEvents.get(), exhaustedEvents.get());
+    }
+    
+    /**
+     * Metrics data class.
+     * failingCount is transient per-batch noise; exhaustedCount is what needs attention.
+     */
+    public record OutboxMetrics(Duration oldestUnprocessedAge, long failingCount, long exhaustedCount) {}
+    
+    /**
+     * An in-flight send within a batch.
+     */
+    private record PendingSend(OutboxEvent event, CompletableFuture<?> future, boolean deadLetter) {
+        
+        /**
+         * Error message if the send failed or has not been acked yet, null on success.
+         */
+        String error() {
+            if (!future.isDone()) {
+                return "Timed out waiting for broker ack";
+            }
+            try {
+                future.join();
+                return null;
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            } catch (CancellationException e) {
+                return "Send cancelled";
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.shared.outbox;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport SPI used by OutboxPoller to deliver outbox events.
+ * 
+ * The poller owns fetching, claiming, batching, ordering and bookkeeping; a
+ * transport only moves a single event to the broker and reports the ack through
+ * the returned future. Sends must be asynchronous: the poller hands the whole
+ * batch to the transport before awaiting any ack.
+ * 
+ * KafkaOutboxTransport is registered by default. Declare an OutboxTransport bean
+ * to replace it (e.g. a different broker, or a stub in tests).
+ */
+public interface OutboxTransport {
+    
+    /**
+     * Send an event to its destination.
+     * 
+     * @param event The outbox event to deliver
+     * @return Future completed when the broker acknowledges the event,
+     *         or completed exceptionally if delivery failed
+     */
+    CompletableFuture<?> send(OutboxEvent event);
+    
+    /**
+     * Send an event that exceeded its retries to the dead letter destination.
+     */
+    CompletableFuture<?> sendToDeadLetter(OutboxEvent event);
+    
+    /**
+     * Push out anything buffered by the transport.
+     * Called once per batch after all sends have been issued.
+     */
+    default void flush() {
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ecommerce.shared.outbox.OutboxEventPublisher;
 import com.ecommerce.shared.security.JwtUtil;
 import com.ecommerce.user.dto.AuthResponse;
 import com.ecommerce.user.dto.LoginRequest;
@@ -16,7 +17,6 @@ import com.ecommerce.user.entity.User;
 import com.ecommerce.user.exception.InvalidCredentialsException;
 import com.ecommerce.user.exception.UserAlreadyExistsException;
 import com.ecommerce.user.exception.UserNotFoundException;
-import com.ecommerce.user.outbox.OutboxEventPublisher;
 import com.ecommerce.user.repository.UserRepository;
 import com.ecommerce.user.service.UserCreatedEventPayload;
 import com.ecommerce.user.service.UserService;
@@ -0,0 +1,24 @@
+-- V4__Add_Outbox_Pending_Index.sql
+-- Pending index for the shared outbox poller (com.ecommerce.shared.outbox)
+
+-- ============================================================================
+-- OUTBOX_EVENTS TABLE INDEXES
+-- ============================================================================
+
+-- Pending events: the poller's hot query
+-- Supports: OutboxEventRepository.findPendingSummaries, claimBatch, findStuckEventSummaries
+-- Created on the partitioned parent, so it cannot be built CONCURRENTLY;
+-- the table only holds the backlog and recent history at this point.
+CREATE INDEX IF NOT EXISTS idx_outbox_pending
+    ON outbox_events(created_at)
+    INCLUDE (id, aggregate_type, aggregate_id, event_type, retry_count)
+    WHERE processed = false;
+
+-- Superseded by idx_outbox_pending
+DROP INDEX IF EXISTS idx_outbox_processed;
+
+-- ============================================================================
+-- ANALYZE
+-- ============================================================================
+
+ANALYZE outbox_events;